@@ -1,20 +1,33 @@
 package net.javaguides.todo;
 
+import net.javaguides.todo.config.NativeRuntimeHints;
 import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class TodoManagementApplication {
 
+	// Nombre maximum d'étapes de démarrage conservées en mémoire.
+	private static final int STARTUP_BUFFER_CAPACITY = 4096;
+
 	@Bean
 	public ModelMapper modelMapper(){
 		return new ModelMapper();
 	}
 
 	public static void main(String[] args) {
-		SpringApplication.run(TodoManagementApplication.class, args);
+		SpringApplication application = new SpringApplication(TodoManagementApplication.class);
+		// Enregistre les étapes du démarrage (création des beans, Hibernate, ...) avec leur durée,
+		// consultables via /actuator/startup pour comparer les temps de démarrage (JVM, image native, ...).
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_BUFFER_CAPACITY));
+		application.run(args);
 	}
 
 }
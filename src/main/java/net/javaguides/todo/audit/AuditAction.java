@@ -0,0 +1,13 @@
+package net.javaguides.todo.audit;
+
+// Actions enregistrées dans le journal d'audit (colonne "action" de la table "audit_log").
+public enum AuditAction {
+    LOGIN,
+    LOGIN_FAILED,
+    REGISTER,
+    TODO_CREATE,
+    TODO_UPDATE,
+    TODO_DELETE,
+    TODO_COMPLETE,
+    TODO_INCOMPLETE
+}
@@ -0,0 +1,17 @@
+package net.javaguides.todo.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Évènement du journal d'audit : qui ("principal") a fait quoi ("action") sur quoi ("target") et quand.
+@Getter
+@AllArgsConstructor
+public class AuditEvent {
+
+    private Instant occurredAt;
+    private String principal;
+    private AuditAction action;
+    private String target;
+}
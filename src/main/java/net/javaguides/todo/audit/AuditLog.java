@@ -0,0 +1,209 @@
+package net.javaguides.todo.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.javaguides.todo.cache.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Journal d'audit asynchrone : les requêtes ajoutent les évènements dans une file en mémoire, sans accès à la
+// base de données ; un thread dédié les écrit ensuite par lots dans la table "audit_log" (batch JDBC).
+// - La file est sans verrou (ConcurrentLinkedQueue) et bornée par un compteur atomique ("app.audit.queue-capacity").
+// - Lorsque la file est pleine, "app.audit.overflow-policy" choisit entre abandonner l'évènement (DROP)
+//   ou attendre une place au plus "app.audit.block-timeout-milliseconds" (BLOCK), puis l'abandonner.
+// - "principal" et "target" sont tronqués à la taille de leur colonne : un nom d'utilisateur trop long saisi
+//   lors d'une connexion échouée ne doit pas faire échouer l'écriture. Si un lot échoue malgré tout,
+//   ses évènements sont réécrits un par un et seuls ceux qui échouent encore sont perdus.
+// - Les métriques audit.queue.depth, audit.events.dropped et audit.events.written sont exposées via Micrometer.
+@Component
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_log (occurred_at, principal, action, target) VALUES (?, ?, ?, ?)";
+
+    // Taille des colonnes "principal" et "target" de la table "audit_log".
+    static final int MAX_COLUMN_LENGTH = 255;
+
+    // Durée d'attente entre deux essais lorsque la file est pleine (politique BLOCK).
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    private final ConcurrentLinkedQueue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+
+    // Nombre d'évènements dans la file (ConcurrentLinkedQueue.size() parcourt toute la file).
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final Counter dropped;
+    private final Counter written;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditLog(JdbcTemplate jdbcTemplate,
+                    TransactionTemplate transactionTemplate,
+                    MeterRegistry meterRegistry,
+                    @Value("${app.audit.enabled}") boolean enabled,
+                    @Value("${app.audit.queue-capacity}") int capacity,
+                    @Value("${app.audit.overflow-policy}") OverflowPolicy overflowPolicy,
+                    @Value("${app.audit.block-timeout-milliseconds}") long blockTimeoutMillis,
+                    @Value("${app.audit.batch-size}") int batchSize,
+                    @Value("${app.audit.flush-interval-milliseconds}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.dropped = meterRegistry.counter("audit.events.dropped");
+        this.written = meterRegistry.counter("audit.events.written");
+        meterRegistry.gauge("audit.queue.depth", depth);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Enregistre un évènement d'audit. Dans une transaction, l'évènement n'est ajouté à la file qu'après le commit :
+    // une modification annulée n'apparaît pas dans le journal.
+    public void record(AuditAction action, String principal, String target) {
+        if (!enabled) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(Instant.now(), truncate(principal), action, truncate(target));
+        AfterCommit.run(() -> enqueue(event));
+    }
+
+    // Tronque une valeur à la taille de sa colonne, sans couper un caractère codé sur deux char (surrogate).
+    static String truncate(String value) {
+        if (value == null || value.length() <= MAX_COLUMN_LENGTH) {
+            return value;
+        }
+        int end = Character.isHighSurrogate(value.charAt(MAX_COLUMN_LENGTH - 1)) ? MAX_COLUMN_LENGTH - 1 : MAX_COLUMN_LENGTH;
+        return value.substring(0, end);
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (!reserve()) {
+            dropped.increment();
+            return;
+        }
+        queue.offer(event);
+    }
+
+    // Réserve une place dans la file, selon la politique de débordement.
+    private boolean reserve() {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (true) {
+            int current = depth.get();
+            if (current < capacity) {
+                if (depth.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                continue;
+            }
+            if (overflowPolicy == OverflowPolicy.DROP || System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+    }
+
+    // Boucle du thread d'écriture : vide la file par lots de "app.audit.batch-size" évènements,
+    // puis attend "app.audit.flush-interval-milliseconds" lorsque la file est vide.
+    private void drain() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            AuditEvent event;
+            while (batch.size() < batchSize && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            depth.addAndGet(-batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            // Le lot est écrit dans une transaction : en cas d'échec, aucune ligne n'est conservée.
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (statement, event) -> {
+                        statement.setTimestamp(1, Timestamp.from(event.getOccurredAt()));
+                        statement.setString(2, event.getPrincipal());
+                        statement.setString(3, event.getAction().name());
+                        statement.setString(4, event.getTarget());
+                    }));
+            written.increment(batch.size());
+        } catch (DataAccessException e) {
+            // Un seul évènement invalide fait échouer tout le lot : les évènements sont réécrits un par un.
+            logger.warn("Unable to write {} audit events as a batch, writing them one by one", batch.size(), e);
+            batch.forEach(this::writeOne);
+        }
+    }
+
+    private void writeOne(AuditEvent event) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, Timestamp.from(event.getOccurredAt()), event.getPrincipal(),
+                    event.getAction().name(), event.getTarget());
+            written.increment();
+        } catch (DataAccessException e) {
+            // L'évènement est perdu, mais l'écriture des suivants continue.
+            logger.warn("Unable to write audit event {} {} {}", event.getAction(), event.getPrincipal(), event.getTarget(), e);
+            dropped.increment();
+        }
+    }
+
+    // Arrêt de l'application : les évènements restant dans la file sont écrits avant l'arrêt du thread.
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
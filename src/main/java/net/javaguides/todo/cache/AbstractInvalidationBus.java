@@ -0,0 +1,76 @@
+package net.javaguides.todo.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Partie commune des transports du bus d'invalidation : identifiant de l'instance, publication après le commit
+// et distribution des évènements reçus aux abonnés. Les sous-classes n'implémentent que l'envoi.
+public abstract class AbstractInvalidationBus implements InvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractInvalidationBus.class);
+
+    // Identifiant de cette instance, utilisé pour ignorer ses propres évènements.
+    private final String origin = UUID.randomUUID().toString();
+
+    private final Map<InvalidationEvent.Region, List<Consumer<Long>>> subscribers =
+            new EnumMap<>(InvalidationEvent.Region.class);
+
+    protected AbstractInvalidationBus() {
+        for (InvalidationEvent.Region region : InvalidationEvent.Region.values()) {
+            subscribers.put(region, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    @Override
+    public void publish(InvalidationEvent.Region region, Long id) {
+        publish(new InvalidationEvent(origin, region, id == null ? null : List.of(id)));
+    }
+
+    @Override
+    public void publish(InvalidationEvent.Region region, Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            publish(new InvalidationEvent(origin, region, List.copyOf(ids)));
+        }
+    }
+
+    private void publish(InvalidationEvent event) {
+        AfterCommit.run(() -> {
+            // Une erreur d'envoi ne doit pas faire échouer la requête : l'expiration du cache (TTL) reste le filet de sécurité.
+            try {
+                send(event);
+            } catch (Exception e) {
+                logger.warn("Unable to publish cache invalidation {} {}", event.getRegion(), event.getIds(), e);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(InvalidationEvent.Region region, Consumer<Long> subscriber) {
+        subscribers.get(region).add(subscriber);
+    }
+
+    // Envoie l'évènement aux autres instances.
+    protected abstract void send(InvalidationEvent event) throws Exception;
+
+    // Distribue un évènement reçu aux abonnés, sauf s'il provient de cette instance.
+    protected void deliver(InvalidationEvent event) {
+        if (origin.equals(event.getOrigin())) {
+            return;
+        }
+        for (Consumer<Long> subscriber : subscribers.get(event.getRegion())) {
+            if (event.getIds() == null) {
+                subscriber.accept(null);
+            } else {
+                event.getIds().forEach(subscriber);
+            }
+        }
+    }
+}
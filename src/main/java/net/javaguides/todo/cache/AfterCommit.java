@@ -0,0 +1,26 @@
+package net.javaguides.todo.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Cette class permet d'exécuter une action (mise à jour d'un cache, ...) uniquement après la validation (commit)
+// de la transaction courante, pour ne jamais exposer une donnée qui serait finalement annulée (rollback).
+// Sans transaction active, l'action est exécutée immédiatement.
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
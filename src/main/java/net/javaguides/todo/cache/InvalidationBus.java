@@ -0,0 +1,21 @@
+package net.javaguides.todo.cache;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Bus d'invalidation des caches entre les instances de l'application.
+// Chaque écriture publie un évènement après le commit ; les autres instances retirent alors l'entrée concernée
+// de leurs caches locaux. Le transport est choisi avec la propriété "app.cache.invalidation.transport".
+public interface InvalidationBus {
+
+    // Publie l'invalidation d'une entité (ou de toute la région si id est null) après le commit de la transaction courante.
+    void publish(InvalidationEvent.Region region, Long id);
+
+    // Publie l'invalidation de plusieurs entités de la région en un seul évènement, après le commit
+    // de la transaction courante (pour les traitements par lots).
+    void publish(InvalidationEvent.Region region, Collection<Long> ids);
+
+    // Enregistre un abonné, appelé avec l'identifiant invalidé (null pour toute la région)
+    // lorsqu'une autre instance modifie une entité de la région.
+    void subscribe(InvalidationEvent.Region region, Consumer<Long> subscriber);
+}
@@ -0,0 +1,70 @@
+package net.javaguides.todo.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Message d'invalidation diffusé entre les instances de l'application après la modification d'entités.
+// "origin" identifie l'instance émettrice (qui a déjà mis son propre cache à jour),
+// "ids" vaut null lorsque toutes les entrées de la région doivent être retirées.
+@Getter
+@AllArgsConstructor
+public class InvalidationEvent {
+
+    // Régions de cache pouvant être invalidées.
+    public enum Region {
+        TODO
+    }
+
+    private String origin;
+    private Region region;
+    private List<Long> ids;
+
+    // Format compact sur le réseau : "origin|REGION|id1,id2,..." en UTF-8 (ids vides pour toute la région).
+    // Les identifiants sont répartis sur plusieurs messages si nécessaire, chacun ne dépassant pas maxLength octets.
+    public List<byte[]> encode(int maxLength) {
+        String header = origin + '|' + region.name() + '|';
+        List<byte[]> messages = new ArrayList<>();
+        if (ids == null) {
+            messages.add(header.getBytes(StandardCharsets.UTF_8));
+            return messages;
+        }
+
+        StringBuilder message = new StringBuilder(header);
+        for (Long id : ids) {
+            String value = id.toString();
+            boolean empty = message.length() == header.length();
+            if (!empty && message.length() + 1 + value.length() > maxLength) {
+                messages.add(message.toString().getBytes(StandardCharsets.UTF_8));
+                message.setLength(header.length());
+                empty = true;
+            }
+            if (!empty) {
+                message.append(',');
+            }
+            message.append(value);
+        }
+        if (message.length() > header.length()) {
+            messages.add(message.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return messages;
+    }
+
+    public static InvalidationEvent decode(byte[] data, int length) {
+        String[] parts = new String(data, 0, length, StandardCharsets.UTF_8).split("\\|", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed invalidation event");
+        }
+        List<Long> ids = null;
+        if (!parts[2].isEmpty()) {
+            ids = new ArrayList<>();
+            for (String id : parts[2].split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+        }
+        return new InvalidationEvent(parts[0], Region.valueOf(parts[1]), ids);
+    }
+}
@@ -0,0 +1,55 @@
+package net.javaguides.todo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.javaguides.todo.dto.TodoDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// Cache des todos en mémoire locale, basé sur Caffeine.
+// Le nombre d'entrées est limité ("app.cache.todo.max-size") et chaque entrée expire après
+// "app.cache.todo.ttl-seconds". Les statistiques sont exposées via Micrometer (cache.gets, cache.evictions, ...).
+@Component
+@ConditionalOnProperty(name = "app.cache.todo.type", havingValue = "local", matchIfMissing = true)
+public class LocalTodoCache implements TodoCache {
+
+    private final Cache<Long, TodoDto> cache;
+
+    public LocalTodoCache(@Value("${app.cache.todo.max-size}") long maxSize,
+                          @Value("${app.cache.todo.ttl-seconds}") long ttlSeconds,
+                          MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "todos");
+    }
+
+    @Override
+    public TodoDto get(Long id, Function<Long, TodoDto> loader) {
+        // Cache.get exécute "loader" de façon atomique pour une clé donnée : les autres threads attendent le résultat.
+        return cache.get(id, loader);
+    }
+
+    @Override
+    public void put(TodoDto todoDto) {
+        cache.put(todoDto.getId(), todoDto);
+    }
+
+    @Override
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
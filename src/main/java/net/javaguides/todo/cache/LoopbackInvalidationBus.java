@@ -0,0 +1,73 @@
+package net.javaguides.todo.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.javaguides.todo.id.NodeIdRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Transport du bus d'invalidation à l'intérieur de la JVM (transport par défaut).
+// Les évènements sont remis de façon synchrone aux autres bus de la même JVM : avec une seule instance,
+// rien n'est à invalider ; dans les tests, plusieurs contextes Spring simulent plusieurs instances.
+// Ce transport ne convient qu'à une instance seule : les autres instances garderaient en cache des todos périmés.
+// L'application refuse donc de démarrer si une autre instance est active (table "id_nodes"), et une erreur est
+// journalisée si une autre instance démarre ensuite ; il faut alors utiliser le transport "multicast".
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationBus extends AbstractInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackInvalidationBus.class);
+
+    // Canal partagé par tous les bus "loopback" de la JVM.
+    private static final List<LoopbackInvalidationBus> CHANNEL = new CopyOnWriteArrayList<>();
+
+    // Registre des instances actives (null : pas de vérification).
+    private final NodeIdRegistry nodeIdRegistry;
+
+    @Autowired
+    public LoopbackInvalidationBus(NodeIdRegistry nodeIdRegistry) {
+        this.nodeIdRegistry = nodeIdRegistry;
+        CHANNEL.add(this);
+    }
+
+    LoopbackInvalidationBus() {
+        this(null);
+    }
+
+    // Vérifie au démarrage que l'instance est seule.
+    @PostConstruct
+    public void checkSingleInstance() {
+        if (nodeIdRegistry != null && nodeIdRegistry.hasOtherInstances()) {
+            throw new IllegalStateException("Another instance is running: app.cache.invalidation.transport=loopback "
+                    + "does not propagate cache invalidations between instances, use \"multicast\"");
+        }
+    }
+
+    // Tâche planifiée qui détecte une autre instance démarrée après celle-ci.
+    @Scheduled(fixedDelayString = "${app.id.heartbeat-milliseconds}", initialDelayString = "${app.id.heartbeat-milliseconds}")
+    public void warnIfOtherInstances() {
+        if (nodeIdRegistry != null && nodeIdRegistry.hasOtherInstances()) {
+            logger.error("Another instance is running: app.cache.invalidation.transport=loopback does not propagate "
+                    + "cache invalidations between instances, cached todos may be stale");
+        }
+    }
+
+    @Override
+    protected void send(InvalidationEvent event) {
+        for (LoopbackInvalidationBus bus : CHANNEL) {
+            bus.deliver(event);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        CHANNEL.remove(this);
+    }
+}
@@ -0,0 +1,87 @@
+package net.javaguides.todo.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+
+// Transport du bus d'invalidation par UDP multicast, pour plusieurs instances sur le même réseau local.
+// Un évènement est envoyé dans un seul datagramme, ou découpé en plusieurs datagrammes de taille inférieure
+// à la MTU lorsqu'il invalide de nombreuses entités ; un datagramme perdu laisse les entrées en cache
+// jusqu'à leur expiration ("app.cache.todo.ttl-seconds").
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.transport", havingValue = "multicast")
+public class MulticastInvalidationBus extends AbstractInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(MulticastInvalidationBus.class);
+
+    // Taille maximale d'un datagramme : sous la MTU Ethernet (1500 octets moins les en-têtes IP et UDP),
+    // pour éviter la fragmentation IP.
+    private static final int MAX_PACKET_SIZE = 1400;
+
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final MulticastSocket socket;
+    private final Thread receiver;
+
+    public MulticastInvalidationBus(@Value("${app.cache.invalidation.multicast-group}") String groupAddress,
+                                    @Value("${app.cache.invalidation.multicast-port}") int port,
+                                    @Value("${app.cache.invalidation.multicast-ttl}") int timeToLive,
+                                    @Value("${app.cache.invalidation.multicast-interface:}") String interfaceName)
+            throws IOException {
+        this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+        this.networkInterface = interfaceName.isBlank() ? null : NetworkInterface.getByName(interfaceName);
+        this.socket = new MulticastSocket(port);
+        // Le TTL limite la portée des datagrammes (1 = réseau local uniquement).
+        this.socket.setTimeToLive(timeToLive);
+        this.socket.joinGroup(group, networkInterface);
+
+        this.receiver = new Thread(this::receive, "cache-invalidation-receiver");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    @Override
+    protected void send(InvalidationEvent event) throws IOException {
+        for (byte[] data : event.encode(MAX_PACKET_SIZE)) {
+            socket.send(new DatagramPacket(data, data.length, group));
+        }
+    }
+
+    // Boucle de réception, exécutée par un thread dédié jusqu'à la fermeture du socket.
+    private void receive() {
+        byte[] buffer = new byte[MAX_PACKET_SIZE];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                deliver(InvalidationEvent.decode(packet.getData(), packet.getLength()));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    logger.warn("Unable to receive cache invalidation", e);
+                }
+            } catch (RuntimeException e) {
+                // Datagramme invalide ou erreur d'un abonné : l'évènement est ignoré, la réception continue.
+                logger.warn("Ignoring cache invalidation", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        try {
+            socket.leaveGroup(group, networkInterface);
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.javaguides.todo.cache;
+
+import net.javaguides.todo.dto.TodoDto;
+
+import java.util.function.Function;
+
+// Interface du cache des todos (TodoDto prêts à être renvoyés), utilisé par TodoServiceImpl selon le principe
+// "cache-aside" : lecture dans le cache, chargement depuis la base en cas d'absence, mise à jour après chaque écriture.
+// L'implémentation est choisie avec la propriété "app.cache.todo.type" (seule "local" existe pour l'instant).
+public interface TodoCache {
+
+    // Renvoie le todo en cache, ou le charge avec "loader" s'il est absent.
+    // Si plusieurs threads demandent le même todo absent, un seul chargement est exécuté.
+    TodoDto get(Long id, Function<Long, TodoDto> loader);
+
+    void put(TodoDto todoDto);
+
+    void evict(Long id);
+
+    void evictAll();
+}
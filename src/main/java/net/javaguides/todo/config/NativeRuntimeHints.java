@@ -0,0 +1,66 @@
+package net.javaguides.todo.config;
+
+import net.javaguides.todo.dto.JwtAuthResponse;
+import net.javaguides.todo.dto.LoginDto;
+import net.javaguides.todo.dto.RefreshTokenDto;
+import net.javaguides.todo.dto.RegisterDto;
+import net.javaguides.todo.dto.TodoArchiveStatusDto;
+import net.javaguides.todo.dto.TodoDto;
+import net.javaguides.todo.dto.TodoStatsDto;
+import net.javaguides.todo.entity.JwtSigningKey;
+import net.javaguides.todo.entity.Role;
+import net.javaguides.todo.entity.Todo;
+import net.javaguides.todo.entity.User;
+import net.javaguides.todo.exception.ErrorDetails;
+import net.javaguides.todo.id.SnowflakeIdentifierGenerator;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+// Indications de réflexion pour l'image native GraalVM (profil Maven "native").
+// Spring AOT détecte seul les beans et les types des contrôleurs ; cette class déclare ce qui est
+// utilisé par réflexion en dehors de ces cas :
+// - ModelMapper lit et écrit les champs des DTOs et des entités (getters/setters Lombok),
+// - ErrorDetails est sérialisé directement par GlobalExceptionHandler,
+// - Hibernate instancie le générateur d'identifiants à partir de son nom,
+// - jjwt charge ses implémentations par nom de class et par ServiceLoader.
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final MemberCategory[] BEAN_MEMBERS = {
+            MemberCategory.DECLARED_FIELDS,
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS
+    };
+
+    // Classes de jjwt-impl et jjwt-jackson (dépendances "runtime", référencées par leur nom).
+    static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : List.of(TodoDto.class, LoginDto.class, RegisterDto.class, RefreshTokenDto.class,
+                JwtAuthResponse.class, TodoArchiveStatusDto.class, TodoStatsDto.class, ErrorDetails.class,
+                Todo.class, User.class, Role.class, JwtSigningKey.class)) {
+            hints.reflection().registerType(type, BEAN_MEMBERS);
+        }
+
+        hints.reflection().registerType(SnowflakeIdentifierGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), BEAN_MEMBERS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+    }
+}
@@ -0,0 +1,56 @@
+package net.javaguides.todo.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Cette class choisit la base de données à utiliser pour chaque connexion :
+// les transactions en lecture seule (@Transactional(readOnly = true)) sont envoyées vers le réplica,
+// toutes les autres vers la base principale.
+// Si le réplica est indisponible ou trop en retard, les lectures sont renvoyées vers la base principale.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    // Indique si le réplica peut recevoir des lectures (mis à jour par ReplicaLagMonitor).
+    private volatile boolean replicaAvailable = true;
+
+    // Compteurs du nombre de connexions attribuées à chaque pool.
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter replicaFallbacks;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryConnections = meterRegistry.counter("datasource.routing.connections", "pool", PRIMARY);
+        this.replicaConnections = meterRegistry.counter("datasource.routing.connections", "pool", REPLICA);
+        this.replicaFallbacks = meterRegistry.counter("datasource.routing.replica.fallbacks");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (replicaAvailable) {
+                replicaConnections.increment();
+                return REPLICA;
+            }
+            replicaFallbacks.increment();
+        }
+        primaryConnections.increment();
+        return PRIMARY;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    public void setReplicaAvailable(boolean replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+    }
+}
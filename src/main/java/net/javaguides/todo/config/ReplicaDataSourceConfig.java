@@ -0,0 +1,138 @@
+package net.javaguides.todo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Configuration activée avec "app.datasource.replica.enabled=true".
+// Elle crée deux pools de connexions (principal et réplica) et une DataSource de routage
+// qui envoie les transactions en lecture seule vers le réplica.
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaDataSourceConfig.class);
+
+    // Pool de connexions vers la base principale, configuré par les propriétés "spring.datasource.*".
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    // Pool de connexions vers le réplica, configuré par les propriétés "app.datasource.replica.*".
+    @Bean
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username}") String username,
+                                              @Value("${app.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName(ReadWriteRoutingDataSource.REPLICA);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                                 MeterRegistry meterRegistry) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, meterRegistry);
+    }
+
+    // DataSource utilisée par JPA. LazyConnectionDataSourceProxy retarde l'obtention de la connexion réelle
+    // jusqu'à la première requête SQL, c'est-à-dire après que la transaction a été marquée en lecture seule.
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(readWriteRoutingDataSource, replicaDataSource, meterRegistry);
+    }
+
+    // Vérifie périodiquement le retard de réplication et retire le réplica du routage
+    // lorsqu'il dépasse "app.datasource.replica.max-lag-seconds" ou qu'il ne répond plus.
+    public static class ReplicaLagMonitor {
+
+        private final ReadWriteRoutingDataSource routingDataSource;
+        private final DataSource replicaDataSource;
+
+        // Dernier retard mesuré en secondes (-1 si le réplica est injoignable).
+        private final AtomicLong lagSeconds = new AtomicLong();
+
+        @Value("${app.datasource.replica.max-lag-seconds}")
+        private long maxLagSeconds;
+
+        // Requête qui renvoie l'état de la réplication (vide pour seulement vérifier la connexion).
+        @Value("${app.datasource.replica.lag-query:}")
+        private String lagQuery;
+
+        // Colonne du résultat qui contient le retard en secondes.
+        @Value("${app.datasource.replica.lag-column:}")
+        private String lagColumn;
+
+        public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, DataSource replicaDataSource, MeterRegistry meterRegistry) {
+            this.routingDataSource = routingDataSource;
+            this.replicaDataSource = replicaDataSource;
+            meterRegistry.gauge("datasource.replica.lag.seconds", lagSeconds);
+            meterRegistry.gauge("datasource.replica.available", routingDataSource, ds -> ds.isReplicaAvailable() ? 1 : 0);
+        }
+
+        @Scheduled(fixedDelayString = "${app.datasource.replica.health-check-interval-milliseconds}")
+        public void checkReplica() {
+            long lag = measureLag();
+            lagSeconds.set(lag);
+
+            boolean available = lag >= 0 && lag <= maxLagSeconds;
+            if (available != routingDataSource.isReplicaAvailable()) {
+                LOGGER.warn("Replica {} for reads (lag: {}s)", available ? "enabled" : "disabled", lag);
+            }
+            routingDataSource.setReplicaAvailable(available);
+        }
+
+        private long measureLag() {
+            try (Connection connection = replicaDataSource.getConnection()) {
+                if (!StringUtils.hasText(lagQuery)) {
+                    return connection.isValid(1) ? 0 : -1;
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    if (!resultSet.next()) {
+                        // Aucun état de réplication : le serveur n'est pas (ou plus) un réplica.
+                        return -1;
+                    }
+                    long lag = resultSet.getLong(lagColumn);
+                    // Une valeur NULL signifie que la réplication est arrêtée.
+                    return resultSet.wasNull() ? -1 : lag;
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Replica health check failed", e);
+                return -1;
+            }
+        }
+    }
+}
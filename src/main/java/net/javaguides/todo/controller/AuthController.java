@@ -1,9 +1,13 @@
 package net.javaguides.todo.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import net.javaguides.todo.dto.JwtAuthResponse;
 import net.javaguides.todo.dto.LoginDto;
+import net.javaguides.todo.dto.RefreshTokenDto;
 import net.javaguides.todo.dto.RegisterDto;
+import net.javaguides.todo.exception.TodoAPIException;
+import net.javaguides.todo.security.LoginRateLimiter;
 import net.javaguides.todo.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -23,6 +27,9 @@ public class AuthController {
     @Autowired // Injecte automatiquement une instance d'AuthService dans cette classe.
     private AuthService authService;
 
+    @Autowired // Injecte automatiquement le limiteur de tentatives de connexion.
+    private LoginRateLimiter loginRateLimiter;
+
 
     // Endpoint pour l'inscription des utilisateurs.
     @PostMapping("/register") // Cette méthode gère les requêtes POST sur "/api/auth/register".
@@ -37,17 +44,41 @@ public class AuthController {
 
     // Endpoint pour la connexion des utilisateurs.
     @PostMapping("/login") // Cette méthode gère les requêtes POST sur "/api/auth/login".
-    public ResponseEntity<JwtAuthResponse> login(@RequestBody LoginDto loginDto) {
+    public ResponseEntity<JwtAuthResponse> login(@RequestBody LoginDto loginDto, HttpServletRequest request) {
+        // Rejette la requête avant toute vérification du mot de passe si l'adresse IP
+        // ou l'utilisateur a dépassé le nombre de tentatives autorisées.
+        if (!loginRateLimiter.tryAcquire(request.getRemoteAddr(), loginDto.getUsernameOrEmail())) {
+            throw new TodoAPIException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, please try again later!");
+        }
+
         // Appelle la méthode "login" de l'AuthService en passant les informations de LoginDto.
-        // Cette méthode gère le processus de connexion et renvoie le token JWT.
-        String token = authService.login(loginDto);
+        // Cette méthode gère le processus de connexion et renvoie le jeton d'accès et le jeton de rafraîchissement.
+        JwtAuthResponse jwtAuthResponse = authService.login(loginDto);
 
-        // Crée une instance de JwtAuthResponse pour encapsuler le token JWT.
-        JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
-        jwtAuthResponse.setAccessToken(token);
+        // Retourne une réponse HTTP avec l'objet JwtAuthResponse contenant les jetons JWT et le code de statut "200 OK".
+        return new ResponseEntity<>(jwtAuthResponse, HttpStatus.OK);
+    }
 
-        // Retourne une réponse HTTP avec l'objet JwtAuthResponse contenant le token JWT et le code de statut "200 OK".
+    // Endpoint pour obtenir une nouvelle paire de jetons à partir d'un jeton de rafraîchissement.
+    @PostMapping("/refresh") // Cette méthode gère les requêtes POST sur "/api/auth/refresh".
+    public ResponseEntity<JwtAuthResponse> refresh(@RequestBody RefreshTokenDto refreshTokenDto) {
+        // Appelle la méthode "refresh" de l'AuthService, qui révoque l'ancien jeton de rafraîchissement et en émet un nouveau.
+        JwtAuthResponse jwtAuthResponse = authService.refresh(refreshTokenDto.getRefreshToken());
+        // Retourne une réponse HTTP avec la nouvelle paire de jetons et le code de statut "200 OK".
         return new ResponseEntity<>(jwtAuthResponse, HttpStatus.OK);
     }
 
+    // Endpoint pour la déconnexion des utilisateurs.
+    @PostMapping("/logout") // Cette méthode gère les requêtes POST sur "/api/auth/logout".
+    public ResponseEntity<String> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                         @RequestBody(required = false) RefreshTokenDto refreshTokenDto) {
+        // Récupère le jeton d'accès depuis l'en-tête "Authorization" s'il est présent.
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        String refreshToken = refreshTokenDto != null ? refreshTokenDto.getRefreshToken() : null;
+        // Appelle la méthode "logout" de l'AuthService pour révoquer les jetons.
+        authService.logout(accessToken, refreshToken);
+        // Retourne une réponse HTTP avec un message de succès et le code de statut "200 OK".
+        return ResponseEntity.ok("Logged out successfully!.");
+    }
+
 }
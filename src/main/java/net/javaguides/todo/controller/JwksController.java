@@ -0,0 +1,32 @@
+package net.javaguides.todo.controller;
+
+import net.javaguides.todo.security.JwtKeyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController // Indique que cette classe est un contrôleur REST.
+public class JwksController {
+
+    @Autowired // Injecte automatiquement le gestionnaire des clés de signature JWT.
+    private JwtKeyManager jwtKeyManager;
+
+    // Durée pendant laquelle les clients peuvent garder le JWKS en cache (couverte par le délai d'activation des clés).
+    @Value("${app.jwt-jwks-max-age-seconds}")
+    private long maxAgeSeconds;
+
+    // Endpoint qui publie les clés publiques (JWKS) permettant aux autres services de vérifier nos jetons localement.
+    @GetMapping("/.well-known/jwks.json") // Cette méthode gère les requêtes GET sur "/.well-known/jwks.json".
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        // Retourne le document JWKS pré-calculé ; les clients peuvent le mettre en cache quelques minutes.
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .body(jwtKeyManager.getJwks());
+    }
+}
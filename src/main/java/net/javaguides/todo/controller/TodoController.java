@@ -1,8 +1,14 @@
 package net.javaguides.todo.controller;
 
 import lombok.AllArgsConstructor;
+import net.javaguides.todo.dto.TodoArchiveStatusDto;
 import net.javaguides.todo.dto.TodoDto;
+import net.javaguides.todo.dto.TodoStatsDto;
+import net.javaguides.todo.exception.TodoAPIException;
+import net.javaguides.todo.idempotency.IdempotencyStore;
+import net.javaguides.todo.service.TodoArchiveService;
 import net.javaguides.todo.service.TodoService;
+import net.javaguides.todo.service.TodoStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,18 +22,54 @@ import java.util.List;
 @RequestMapping("api/todos") // Toutes les requêtes commençant par "/api/todos" seront gérées par ce contrôleur.
 public class TodoController {
 
+    // Taille maximale d'une page de todos.
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Nombre maximal de todos créés par une requête "bulk".
+    private static final int MAX_BULK_SIZE = 500;
+
     @Autowired // Injecte automatiquement une instance de TodoService dans cette classe.
     private TodoService todoService;
 
+    @Autowired // Injecte automatiquement une instance de TodoArchiveService dans cette classe.
+    private TodoArchiveService todoArchiveService;
+
+    @Autowired // Injecte automatiquement une instance de TodoStatsService dans cette classe.
+    private TodoStatsService todoStatsService;
+
+    @Autowired // Injecte automatiquement une instance de IdempotencyStore dans cette classe.
+    private IdempotencyStore idempotencyStore;
+
 
     // Endpoint pour ajouter un todo.
     @PreAuthorize("hasRole('ADMIN')") // Permet l'accès à cette méthode uniquement aux utilisateurs ayant le rôle "ADMIN".
     @PostMapping // Cette méthode gère les requêtes POST sur "/api/todos".
-    public ResponseEntity<TodoDto> addTodo(@RequestBody TodoDto todoDto) {
-        // Appelle la méthode "addTodo" de TodoService en passant l'objet TodoDto pour ajouter un todo.
-        TodoDto savedTodo = todoService.addTodo(todoDto);
-        // Retourne une réponse HTTP avec le todo nouvellement créé et le code de statut "201 CREATED".
-        return new ResponseEntity<>(savedTodo, HttpStatus.CREATED);
+    public ResponseEntity<TodoDto> addTodo(@RequestBody TodoDto todoDto,
+                                           @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        // Avec l'en-tête "Idempotency-Key", une requête renvoyée (même clé) reçoit la réponse de la première
+        // sans créer un deuxième todo.
+        return idempotencyStore.execute(idempotencyKey, todoDto, () -> {
+            // Appelle la méthode "addTodo" de TodoService en passant l'objet TodoDto pour ajouter un todo.
+            TodoDto savedTodo = todoService.addTodo(todoDto);
+            // Retourne une réponse HTTP avec le todo nouvellement créé et le code de statut "201 CREATED".
+            return new ResponseEntity<>(savedTodo, HttpStatus.CREATED);
+        });
+    }
+
+    // Endpoint pour ajouter plusieurs todos en une seule requête (et une seule transaction).
+    @PreAuthorize("hasRole('ADMIN')") // Permet l'accès à cette méthode uniquement aux utilisateurs ayant le rôle "ADMIN".
+    @PostMapping("bulk") // Cette méthode gère les requêtes POST sur "/api/todos/bulk".
+    public ResponseEntity<List<TodoDto>> addTodos(@RequestBody List<TodoDto> todoDtos,
+                                                  @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        if (todoDtos.isEmpty() || todoDtos.size() > MAX_BULK_SIZE) {
+            throw new TodoAPIException(HttpStatus.BAD_REQUEST, "A bulk request must contain between 1 and " + MAX_BULK_SIZE + " todos!");
+        }
+        return idempotencyStore.execute(idempotencyKey, todoDtos, () -> {
+            // Appelle la méthode "addTodos" de TodoService en passant la liste des todos à ajouter.
+            List<TodoDto> savedTodos = todoService.addTodos(todoDtos);
+            // Retourne une réponse HTTP avec les todos nouvellement créés et le code de statut "201 CREATED".
+            return new ResponseEntity<>(savedTodos, HttpStatus.CREATED);
+        });
     }
 
     // Endpoint pour récupérer un todo par son ID.
@@ -41,15 +83,29 @@ public class TodoController {
     }
 
     // Endpoint pour récupérer tous les todos.
+    // Avec le paramètre "limit", renvoie une page de todos triés par identifiant, à partir du curseur "afterId"
+    // (l'identifiant du dernier todo de la page précédente).
     @PreAuthorize("hasAnyRole('ADMIN','USER')") // Permet l'accès à cette méthode aux utilisateurs ayant les rôles "ADMIN" ou "USER".
     @GetMapping // Cette méthode gère les requêtes GET sur "/api/todos".
-    public ResponseEntity<List<TodoDto>> getAllTodos() {
-        // Appelle la méthode "getAllTodos" de TodoService pour récupérer tous les todos.
-        List<TodoDto> todos = todoService.getAllTodos();
+    public ResponseEntity<List<TodoDto>> getAllTodos(@RequestParam(value = "afterId", required = false) Long afterId,
+                                                     @RequestParam(value = "limit", required = false) Integer limit) {
+        // Appelle la méthode "getTodos" (page) ou "getAllTodos" de TodoService pour récupérer les todos.
+        List<TodoDto> todos = limit != null
+                ? todoService.getTodos(afterId, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+                : todoService.getAllTodos();
         // Retourne une réponse HTTP avec la liste de tous les todos et le code de statut "200 OK".
         return ResponseEntity.ok(todos);
     }
 
+    // Endpoint pour récupérer les statistiques des todos (total, complétés, en cours).
+    // Les compteurs sont maintenus en mémoire : aucune requête n'est exécutée sur la base de données.
+    @PreAuthorize("hasAnyRole('ADMIN','USER')") // Permet l'accès à cette méthode aux utilisateurs ayant les rôles "ADMIN" ou "USER".
+    @GetMapping("stats") // Cette méthode gère les requêtes GET sur "/api/todos/stats".
+    public ResponseEntity<TodoStatsDto> getTodoStats() {
+        // Retourne une réponse HTTP avec les statistiques et le code de statut "200 OK".
+        return ResponseEntity.ok(todoStatsService.getStats());
+    }
+
     // Endpoint pour mettre à jour un todo.
     @PreAuthorize("hasRole('ADMIN')") // Permet l'accès à cette méthode uniquement aux utilisateurs ayant le rôle "ADMIN".
     @PutMapping("{id}") // Cette méthode gère les requêtes PUT sur "/api/todos/{id}" où {id} est l'ID du todo à mettre à jour.
@@ -90,4 +146,24 @@ public class TodoController {
         return ResponseEntity.ok(updatedTodo);
     }
 
+    // Endpoint pour démarrer l'archivage des todos complétés (exécuté en arrière-plan).
+    @PreAuthorize("hasRole('ADMIN')") // Permet l'accès à cette méthode uniquement aux utilisateurs ayant le rôle "ADMIN".
+    @PostMapping("archive") // Cette méthode gère les requêtes POST sur "/api/todos/archive".
+    public ResponseEntity<TodoArchiveStatusDto> archiveTodos() {
+        // Appelle la méthode "startArchive" de TodoArchiveService ; un seul archivage peut être en cours.
+        if (!todoArchiveService.startArchive()) {
+            throw new TodoAPIException(HttpStatus.CONFLICT, "Todo archival is already running!");
+        }
+        // Retourne une réponse HTTP avec l'état de l'archivage et le code de statut "202 ACCEPTED".
+        return new ResponseEntity<>(todoArchiveService.getStatus(), HttpStatus.ACCEPTED);
+    }
+
+    // Endpoint pour suivre l'archivage des todos complétés.
+    @PreAuthorize("hasRole('ADMIN')") // Permet l'accès à cette méthode uniquement aux utilisateurs ayant le rôle "ADMIN".
+    @GetMapping("archive/status") // Cette méthode gère les requêtes GET sur "/api/todos/archive/status".
+    public ResponseEntity<TodoArchiveStatusDto> getArchiveStatus() {
+        // Retourne une réponse HTTP avec l'état de l'archivage et le code de statut "200 OK".
+        return ResponseEntity.ok(todoArchiveService.getStatus());
+    }
+
 }
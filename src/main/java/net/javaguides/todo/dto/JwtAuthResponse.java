@@ -15,6 +15,12 @@ public class JwtAuthResponse {
     // Champ pour stocker le jeton d'accès JWT.
     private String accessToken;
 
+    // Champ pour stocker le jeton de rafraîchissement, utilisé pour obtenir un nouveau jeton d'accès.
+    private String refreshToken;
+
+    // Champ pour stocker la durée de validité du jeton d'accès, en secondes.
+    private long expiresIn;
+
     // Champ pour stocker le type de jeton (dans ce cas, c'est "Bearer").
     // Par défaut, le type de jeton est défini sur "Bearer" pour être conforme aux normes JWT.
     private String tokenType = "Bearer";
@@ -0,0 +1,15 @@
+package net.javaguides.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+// Ce DTO va servir à stocker lors des requêtes de refresh et de logout le jeton de rafraîchissement.
+public class RefreshTokenDto {
+    private String refreshToken;
+}
@@ -0,0 +1,25 @@
+package net.javaguides.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+// Ce DTO décrit l'état de l'archivage des todos complétés (GET /api/todos/archive/status).
+public class TodoArchiveStatusDto {
+
+    private boolean running;
+    private Instant lastStartedAt;
+    private Instant lastFinishedAt;
+    // Nombre de todos archivés par l'exécution en cours (ou la dernière exécution terminée).
+    private long archivedInRun;
+    // Nombre de todos archivés depuis le démarrage de l'instance.
+    private long archivedTotal;
+    private String lastError;
+}
@@ -1,5 +1,7 @@
 package net.javaguides.todo.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,6 +14,11 @@ import lombok.Setter;
 // Ce DTO va servir à stocker lors de la requête et des responses concernant les todo.
 public class TodoDto {
 
+    // Les identifiants (Snowflake) dépassent 2^53 : ils sont envoyés sous forme de chaîne pour ne pas être
+    // arrondis par les clients JavaScript. Une chaîne ou un nombre est accepté en entrée.
+    // Changement incompatible du format des réponses : "id" était un nombre avant l'introduction du générateur
+    // Snowflake ; les clients qui le lisent comme un nombre doivent accepter une chaîne.
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private String title;
     private String description;
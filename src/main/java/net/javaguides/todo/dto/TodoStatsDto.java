@@ -0,0 +1,22 @@
+package net.javaguides.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+// Ce DTO contient les statistiques des todos (GET /api/todos/stats).
+public class TodoStatsDto {
+
+    private long total;
+    private long completed;
+    private long pending;
+    // Date du dernier recalcul des compteurs à partir de la base de données.
+    private Instant reconciledAt;
+}
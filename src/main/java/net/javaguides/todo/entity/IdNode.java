@@ -0,0 +1,43 @@
+package net.javaguides.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "id_nodes")
+public class IdNode implements Persistable<Integer> {
+
+    // Numéro de noeud (app.id.node-id) encodé dans les identifiants générés.
+    @Id
+    private Integer nodeId;
+
+    // Identifiant du processus (JVM) qui utilise ce numéro de noeud.
+    @Column(nullable = false, length = 36)
+    private String processId;
+
+    // Dernier signe de vie du processus : au-delà du délai d'expiration, le numéro de noeud est libéré.
+    @Column(nullable = false)
+    private Instant heartbeatAt;
+
+    @Override
+    public Integer getId() {
+        return nodeId;
+    }
+
+    // Un numéro de noeud est toujours inséré (jamais fusionné avec une ligne existante) : s'il est déjà utilisé,
+    // la clé primaire est violée, ce qui rend l'attribution atomique entre les instances.
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package net.javaguides.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.Length;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "jwt_signing_keys")
+public class JwtSigningKey {
+
+    @Id
+    @Column(length = 32)
+    private String kid;
+
+    // Clés encodées en Base64 (colonnes LONGTEXT sur MySQL).
+    @Column(nullable = false, length = Length.LONG32)
+    private String privateKey;
+
+    @Column(nullable = false, length = Length.LONG32)
+    private String publicKey;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
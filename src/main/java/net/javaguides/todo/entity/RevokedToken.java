@@ -0,0 +1,43 @@
+package net.javaguides.todo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken implements Persistable<String> {
+
+    // Identifiant (jti) du jeton révoqué.
+    @Id
+    @Column(length = 32)
+    private String jti;
+
+    // Date d'expiration du jeton : au-delà, la révocation n'a plus besoin d'être conservée.
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Override
+    public String getId() {
+        return jti;
+    }
+
+    // Une révocation est toujours insérée (jamais fusionnée avec une ligne existante) : si le jeton
+    // est déjà révoqué, la clé primaire est violée, ce qui rend la révocation atomique entre les instances.
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -5,6 +5,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import net.javaguides.todo.id.ShardAware;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Setter
 @Getter
@@ -12,10 +18,11 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "todos")
-public class Todo {
+public class Todo implements ShardAware {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "snowflake")
+    @GenericGenerator(name = "snowflake", strategy = "net.javaguides.todo.id.SnowflakeIdentifierGenerator")
     private Long id;
 
     @Column(nullable = false)
@@ -24,4 +31,20 @@ public class Todo {
     @Column(nullable = false)
     private String description;
     private boolean completed;
+
+    // Nom de l'utilisateur qui a créé le todo ; il détermine la shard sur laquelle le todo est stocké.
+    private String owner;
+
+    // Dates de création et de dernière modification, renseignées par Hibernate.
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    // Shard sur laquelle le todo est stocké (non persistée) : elle est encodée dans l'identifiant généré.
+    @Transient
+    private int shard;
 }
@@ -1,10 +1,15 @@
 package net.javaguides.todo.exception;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 
@@ -13,22 +18,45 @@ import java.time.LocalDateTime;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Sérialiseur JSON dédié à ErrorDetails, créé une seule fois.
+    // Le corps de la réponse est écrit directement en octets, sans passer par la négociation de contenu.
+    private final ObjectWriter errorDetailsWriter;
+
+    public GlobalExceptionHandler(ObjectMapper objectMapper) {
+        this.errorDetailsWriter = objectMapper.writerFor(ErrorDetails.class);
+    }
+
     // L'annotation @ExceptionHandler indique que cette méthode est utilisée pour gérer les exceptions
     // de type TodoAPIException. Si une TodoAPIException est lancée dans l'application, cette méthode sera appelée.
     @ExceptionHandler(TodoAPIException.class)
-    public ResponseEntity<ErrorDetails> handleTodoAPIException(TodoAPIException exception,
-                                                               WebRequest webRequest) {
+    public ResponseEntity<byte[]> handleTodoAPIException(TodoAPIException exception,
+                                                         HttpServletRequest request) throws JsonProcessingException {
+        // Retourne une réponse HTTP avec les détails de l'erreur et le code de statut
+        // porté par l'exception TodoAPIException (par exemple "400 BAD REQUEST" ou "429 TOO MANY REQUESTS").
+        return errorResponse(exception.getStatus(), exception.getMessage(), request);
+    }
+
+    // Cette méthode gère les exceptions de type ResourceNotFoundException (todo inexistant, ...)
+    // et renvoie le code de statut "404 NOT FOUND".
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<byte[]> handleResourceNotFoundException(ResourceNotFoundException exception,
+                                                                  HttpServletRequest request) throws JsonProcessingException {
+        return errorResponse(HttpStatus.NOT_FOUND, exception.getMessage(), request);
+    }
+
+    // Méthode privée qui construit la réponse d'erreur.
+    private ResponseEntity<byte[]> errorResponse(HttpStatusCode status, String message,
+                                                 HttpServletRequest request) throws JsonProcessingException {
         // Crée une instance de ErrorDetails pour encapsuler les détails de l'erreur.
         // Cette classe est utilisée pour renvoyer des détails sur les erreurs aux clients de l'API.
         ErrorDetails errorDetails = new ErrorDetails(
                 LocalDateTime.now(), // Date et heure actuelles où l'erreur s'est produite.
-                exception.getMessage(), // Le message décrivant l'erreur de l'exception TodoAPIException.
-                webRequest.getDescription(false) // Description de la requête où l'erreur s'est produite (paramètres, URL, etc.).
+                message, // Le message décrivant l'erreur.
+                "uri=" + request.getRequestURI() // URL de la requête où l'erreur s'est produite.
         );
 
-        // Retourne une réponse HTTP avec l'objet ErrorDetails contenant les détails de l'erreur et le code de statut "400 BAD REQUEST".
-        // Dans ce cas, le code de statut indique une mauvaise requête car une exception TodoAPIException a été levée.
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorDetailsWriter.writeValueAsBytes(errorDetails));
     }
 }
-
@@ -14,7 +14,9 @@ public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message) {
         // Appelle le constructeur de la classe parente (RuntimeException) avec le message en tant qu'argument.
         // Cela permet d'initialiser le message de l'exception à afficher lorsque celle-ci est levée.
-        super(message);
+        // La trace d'appel (stack trace) n'est pas capturée : un identifiant inexistant est un cas normal,
+        // qui ne doit pas coûter plus cher qu'une réponse classique.
+        super(message, null, false, false);
     }
 }
 
@@ -1,13 +1,13 @@
 package net.javaguides.todo.exception;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 
 
 @Getter
-@AllArgsConstructor
 // Cette class va permettre de personnalisé des execptions génériques dans notre application.
+// La trace d'appel (stack trace) n'est pas capturée : ces exceptions décrivent une erreur métier
+// renvoyée au client, et leur création reste peu coûteuse même lorsqu'elles sont très fréquentes.
 public class TodoAPIException extends RuntimeException {
 
     // Champ pour stocker le code de statut HTTP associé à l'exception.
@@ -15,4 +15,10 @@ public class TodoAPIException extends RuntimeException {
 
     // Champ pour stocker le message décrivant l'exception.
     private String message;
+
+    public TodoAPIException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.message = message;
+    }
 }
@@ -0,0 +1,8 @@
+package net.javaguides.todo.id;
+
+// Interface des générateurs d'identifiants utilisés par les entités.
+// Un générateur doit pouvoir être appelé simultanément par plusieurs threads.
+public interface IdGenerator {
+
+    long nextId();
+}
@@ -0,0 +1,107 @@
+package net.javaguides.todo.id;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.javaguides.todo.entity.IdNode;
+import net.javaguides.todo.repository.IdNodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+// Cette class garantit qu'un numéro de noeud (app.id.node-id) n'est utilisé que par une seule instance à la fois :
+// deux instances avec le même numéro généreraient les mêmes identifiants.
+// - Au démarrage, le numéro est enregistré dans la table "id_nodes" (insertion sur la clé primaire, atomique) ;
+//   s'il est déjà utilisé par une autre instance en cours d'exécution, l'application ne démarre pas.
+// - Chaque instance signale périodiquement qu'elle est toujours active ; un numéro sans signe de vie depuis
+//   "app.id.node-timeout-milliseconds" est libéré (instance arrêtée sans avoir pu libérer son numéro).
+// - Avec le sharding ou plusieurs instances (transport d'invalidation "multicast"), le numéro doit être configuré
+//   explicitement ; sinon, une instance seule utilise le numéro 0.
+// Les contextes Spring d'une même JVM (tests) partagent les générateurs, et donc leur numéro de noeud.
+@Component
+public class NodeIdRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeIdRegistry.class);
+
+    // Identifiant de ce processus, commun à tous les contextes Spring de la JVM.
+    private static final String PROCESS_ID = UUID.randomUUID().toString();
+
+    private final IdNodeRepository idNodeRepository;
+    private final int nodeId;
+    private final Duration timeout;
+
+    public NodeIdRegistry(IdNodeRepository idNodeRepository,
+                          @Value("${app.id.node-id}") String nodeId,
+                          @Value("${app.sharding.enabled}") boolean sharded,
+                          @Value("${app.cache.invalidation.transport}") String invalidationTransport,
+                          @Value("${app.id.node-timeout-milliseconds}") long timeoutMillis) {
+        if (nodeId.isBlank() && (sharded || "multicast".equals(invalidationTransport))) {
+            throw new IllegalStateException("app.id.node-id must be set, with a distinct value for each instance, "
+                    + "when sharding or several instances are enabled");
+        }
+        this.idNodeRepository = idNodeRepository;
+        this.nodeId = nodeId.isBlank() ? 0 : Integer.parseInt(nodeId.trim());
+        if (this.nodeId < 0 || this.nodeId >= (1 << SnowflakeIdGenerator.NODE_BITS)) {
+            throw new IllegalArgumentException("app.id.node-id must be between 0 and " + ((1 << SnowflakeIdGenerator.NODE_BITS) - 1));
+        }
+        this.timeout = Duration.ofMillis(timeoutMillis);
+    }
+
+    // Enregistre le numéro de noeud au démarrage ; échoue s'il est utilisé par une autre instance active.
+    @PostConstruct
+    public void register() {
+        Instant now = Instant.now();
+        idNodeRepository.deleteByHeartbeatAtBefore(now.minus(timeout));
+        if (!claim(now)) {
+            throw new IllegalStateException("Node id " + nodeId + " is already used by another running instance "
+                    + "(app.id.node-id must be distinct for each instance)");
+        }
+    }
+
+    // Tâche planifiée qui signale que l'instance est toujours active.
+    @Scheduled(fixedDelayString = "${app.id.heartbeat-milliseconds}", initialDelayString = "${app.id.heartbeat-milliseconds}")
+    public void heartbeat() {
+        Instant now = Instant.now();
+        idNodeRepository.deleteByHeartbeatAtBefore(now.minus(timeout));
+        if (!claim(now)) {
+            // Le numéro a été repris par une autre instance (signe de vie manqué trop longtemps) : les identifiants
+            // des deux instances peuvent entrer en collision, l'instance doit être redémarrée.
+            logger.error("Node id {} is now used by another instance: generated ids may collide", nodeId);
+        }
+    }
+
+    // Indique si d'autres instances (d'autres processus) sont actives.
+    public boolean hasOtherInstances() {
+        return idNodeRepository.findByHeartbeatAtAfter(Instant.now().minus(timeout)).stream()
+                .anyMatch(node -> !PROCESS_ID.equals(node.getProcessId()));
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    // Met à jour la ligne de ce processus, ou l'insère si le numéro est libre.
+    private boolean claim(Instant now) {
+        if (idNodeRepository.touch(nodeId, PROCESS_ID, now) > 0) {
+            return true;
+        }
+        try {
+            idNodeRepository.saveAndFlush(new IdNode(nodeId, PROCESS_ID, now));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Insertion simultanée par un autre contexte de cette JVM, ou numéro utilisé par une autre instance.
+            return idNodeRepository.touch(nodeId, PROCESS_ID, now) > 0;
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        idNodeRepository.release(nodeId, PROCESS_ID);
+    }
+}
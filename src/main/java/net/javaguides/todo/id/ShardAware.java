@@ -0,0 +1,8 @@
+package net.javaguides.todo.id;
+
+// Interface implémentée par les entités réparties entre plusieurs shards :
+// le numéro de shard est encodé dans l'identifiant généré.
+public interface ShardAware {
+
+    int getShard();
+}
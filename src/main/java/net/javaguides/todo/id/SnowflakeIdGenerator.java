@@ -0,0 +1,105 @@
+package net.javaguides.todo.id;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Générateur d'identifiants de type "Snowflake", sur 63 bits :
+// | 41 bits : millisecondes depuis EPOCH | 10 bits : worker (shard + noeud) | 12 bits : séquence |
+// Les identifiants sont uniques entre plusieurs instances (chaque instance a son propre numéro de noeud),
+// croissants dans le temps (utilisables pour la pagination par clé) et générés sans accès à la base de données,
+// ce qui permet à Hibernate de regrouper les insertions (batch).
+// Le générateur est sans verrou : l'horodatage et la séquence sont stockés dans un seul AtomicLong mis à jour par CAS.
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    // Origine des horodatages : 2024-01-01T00:00:00Z.
+    public static final long EPOCH = 1704067200000L;
+
+    public static final int SEQUENCE_BITS = 12;
+    public static final int NODE_BITS = 5;
+    public static final int SHARD_BITS = 5;
+    public static final int WORKER_BITS = NODE_BITS + SHARD_BITS;
+
+    public static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    public static final long MAX_SHARD = (1L << SHARD_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Les identifiants inférieurs à cette borne (horodatage du premier jour après EPOCH) n'ont pas été générés
+    // par ce générateur : ce sont les identifiants auto-incrémentés des lignes créées avant son introduction.
+    public static final long LEGACY_ID_LIMIT = TimeUnit.DAYS.toMillis(1) << (WORKER_BITS + SEQUENCE_BITS);
+
+    // Numéro du worker (0 à 1023) encodé dans chaque identifiant.
+    private final long workerId;
+
+    // Horloge en millisecondes (System.currentTimeMillis, remplaçable dans les tests).
+    private final LongSupplier clock;
+
+    // Dernier état utilisé : (horodatage << SEQUENCE_BITS) | séquence.
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(long workerId) {
+        this(workerId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long workerId, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
+        this.clock = clock;
+    }
+
+    // Construit le numéro de worker d'une entité répartie entre shards : 5 bits de shard et 5 bits de noeud.
+    public static long shardWorkerId(int shard, long nodeId) {
+        return ((long) shard << NODE_BITS) | (nodeId & ((1L << NODE_BITS) - 1));
+    }
+
+    // Renvoie le numéro de shard encodé dans un identifiant généré avec shardWorkerId.
+    // Les identifiants antérieurs au générateur (auto-incrémentés) appartiennent tous à la shard 0,
+    // qui contient les données existantes lors de l'activation du sharding.
+    public static int shardOf(long id) {
+        if (isLegacyId(id)) {
+            return 0;
+        }
+        return (int) ((id >>> (SEQUENCE_BITS + NODE_BITS)) & MAX_SHARD);
+    }
+
+    // Indique si un identifiant a été attribué avant l'introduction du générateur (auto-incrément de la base).
+    public static boolean isLegacyId(long id) {
+        return id < LEGACY_ID_LIMIT;
+    }
+
+    // Renvoie le plus petit identifiant pouvant être généré à l'instant donné (en millisecondes) :
+    // tous les identifiants générés avant cet instant lui sont inférieurs.
+    public static long minIdAt(long epochMillis) {
+        return Math.max(0, epochMillis - EPOCH) << (WORKER_BITS + SEQUENCE_BITS);
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long previous = state.get();
+            long now = clock.getAsLong() - EPOCH;
+            long previousTimestamp = previous >>> SEQUENCE_BITS;
+
+            long next;
+            if (now > previousTimestamp) {
+                // Nouvelle milliseconde : la séquence repart de 0.
+                next = now << SEQUENCE_BITS;
+            } else if ((previous & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                // Même milliseconde (ou horloge revenue en arrière) : on incrémente la séquence.
+                next = previous + 1;
+            } else {
+                // Séquence épuisée : on passe à la milliseconde suivante sans attendre,
+                // ce qui garde les identifiants uniques et croissants.
+                next = (previousTimestamp + 1) << SEQUENCE_BITS;
+            }
+
+            if (state.compareAndSet(previous, next)) {
+                return ((next >>> SEQUENCE_BITS) << (WORKER_BITS + SEQUENCE_BITS))
+                        | (workerId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+}
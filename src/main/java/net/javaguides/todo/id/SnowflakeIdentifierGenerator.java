@@ -0,0 +1,43 @@
+package net.javaguides.todo.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Adaptateur qui permet à Hibernate d'utiliser SnowflakeIdGenerator pour générer les identifiants des entités.
+// Utilisation : @GenericGenerator(name = "snowflake", strategy = "net.javaguides.todo.id.SnowflakeIdentifierGenerator")
+// Le numéro de noeud (0 à 31, unique par instance, vérifié par NodeIdRegistry) est lu dans la propriété
+// Hibernate "app.id.node-id" (spring.jpa.properties.app.id.node-id).
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+    public static final String NODE_ID_SETTING = "app.id.node-id";
+
+    // Un seul générateur par worker dans la JVM, partagé par toutes les entités.
+    private static final ConcurrentHashMap<Long, IdGenerator> GENERATORS = new ConcurrentHashMap<>();
+
+    private long nodeId;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        Object setting = serviceRegistry.getService(ConfigurationService.class).getSettings().get(NODE_ID_SETTING);
+        // Sans numéro configuré (une seule instance, voir NodeIdRegistry), le numéro 0 est utilisé.
+        this.nodeId = setting == null || setting.toString().isBlank() ? 0 : Long.parseLong(setting.toString().trim());
+        if (nodeId < 0 || nodeId >= (1L << SnowflakeIdGenerator.NODE_BITS)) {
+            throw new IllegalArgumentException(NODE_ID_SETTING + " must be between 0 and " + ((1L << SnowflakeIdGenerator.NODE_BITS) - 1));
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        // Pour une entité répartie entre shards, la shard est encodée dans l'identifiant.
+        long workerId = object instanceof ShardAware shardAware
+                ? SnowflakeIdGenerator.shardWorkerId(shardAware.getShard(), nodeId)
+                : nodeId;
+        return GENERATORS.computeIfAbsent(workerId, SnowflakeIdGenerator::new).nextId();
+    }
+}
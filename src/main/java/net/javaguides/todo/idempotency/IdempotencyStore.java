@@ -0,0 +1,171 @@
+package net.javaguides.todo.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.javaguides.todo.exception.TodoAPIException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Cette class gère l'en-tête "Idempotency-Key" des requêtes d'écriture.
+// La première requête portant une clé est exécutée et sa réponse est conservée ; les requêtes suivantes avec la même
+// clé (même utilisateur, même contenu) reçoivent cette réponse sans nouvel accès à la base de données.
+// - Les requêtes simultanées avec la même clé attendent le résultat de la première : une seule exécution.
+//   L'attente est limitée à "app.idempotency.wait-timeout-milliseconds" ; au-delà, la requête est rejetée (409).
+// - Une clé réutilisée avec un contenu différent est rejetée (422).
+// - Une exécution en erreur (exception ou Error) n'est pas conservée : la requête peut être renvoyée avec la même clé.
+// Les réponses sont conservées en mémoire pendant "app.idempotency.ttl-seconds", dans la limite de
+// "app.idempotency.max-weight-bytes" octets : le poids d'une entrée est estimé à partir de la taille de la réponse
+// sérialisée en JSON (plus un coût fixe par clé) ; les entrées les moins utiles sont retirées au-delà.
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    // En-tête ajouté aux réponses renvoyées depuis le store.
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Coût estimé d'une entrée hors contenu de la réponse (clé, empreinte, future, ResponseEntity, noeud du cache).
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    // Clé du store : la clé fournie par le client n'est valable que pour l'utilisateur qui l'a envoyée.
+    private record StoreKey(String principal, String idempotencyKey) {
+    }
+
+    // Empreinte du contenu de la requête, réponse (en cours de calcul ou terminée) et poids estimé en octets.
+    private record Entry(byte[] requestHash, CompletableFuture<ResponseEntity<?>> response, int weight) {
+    }
+
+    private final Cache<StoreKey, Entry> entries;
+    private final long waitTimeoutMillis;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyStore(@Value("${app.idempotency.max-weight-bytes}") long maxWeightBytes,
+                            @Value("${app.idempotency.ttl-seconds}") long ttlSeconds,
+                            @Value("${app.idempotency.wait-timeout-milliseconds}") long waitTimeoutMillis,
+                            ObjectMapper objectMapper) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((StoreKey key, Entry entry) -> entry.weight())
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.objectMapper = objectMapper;
+    }
+
+    // Exécute "action" une seule fois pour une clé donnée, ou renvoie la réponse déjà obtenue pour cette clé.
+    // Sans clé, "action" est simplement exécutée.
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String idempotencyKey, Object request, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new TodoAPIException(HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key header!");
+        }
+
+        StoreKey key = new StoreKey(currentPrincipal(), idempotencyKey);
+        int keyWeight = ENTRY_OVERHEAD_BYTES + 2 * (key.principal().length() + idempotencyKey.length());
+        Entry entry = new Entry(hash(request), new CompletableFuture<>(), keyWeight);
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+
+        if (existing != null) {
+            if (!Arrays.equals(existing.requestHash(), entry.requestHash())) {
+                throw new TodoAPIException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used with a different request!");
+            }
+            return (ResponseEntity<T>) replay(existing.response());
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException | Error e) {
+            // L'échec est transmis aux requêtes en attente, puis la clé est libérée pour permettre un nouvel essai.
+            // Une Error (OutOfMemoryError, ...) est traitée de la même façon : l'entrée ne reste jamais en attente.
+            entries.asMap().remove(key, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+
+        // L'entrée est remplacée par une entrée de même réponse, pesée avec le contenu de la réponse :
+        // Caffeine ne recalcule le poids d'une entrée que lors de son remplacement.
+        entries.asMap().replace(key, entry, new Entry(entry.requestHash(), entry.response(),
+                (int) Math.min(Integer.MAX_VALUE, (long) keyWeight + bodyWeight(response))));
+        entry.response().complete(response);
+        return response;
+    }
+
+    // Attend la réponse de la première requête (si elle est encore en cours) et la renvoie avec l'en-tête REPLAYED_HEADER.
+    private ResponseEntity<?> replay(CompletableFuture<ResponseEntity<?>> future) {
+        ResponseEntity<?> response;
+        try {
+            response = future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // La première requête est toujours en cours : le client peut renvoyer la requête plus tard.
+            throw new TodoAPIException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress!");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TodoAPIException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress!");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    // Empreinte SHA-256 du contenu de la requête (sérialisé en JSON).
+    private byte[] hash(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash request", e);
+        }
+    }
+
+    // Poids total estimé des entrées conservées, en octets (après les évictions en attente).
+    long weightedSize() {
+        entries.cleanUp();
+        return entries.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+
+    // Taille de la réponse sérialisée en JSON, utilisée comme estimation de la mémoire occupée.
+    private int bodyWeight(ResponseEntity<?> response) {
+        if (response.getBody() == null) {
+            return 0;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(response.getBody()).length;
+        } catch (JsonProcessingException e) {
+            // Réponse non sérialisable : elle n'est pas conservée (poids maximal, retirée aussitôt).
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+}
@@ -0,0 +1,36 @@
+package net.javaguides.todo.repository;
+
+import net.javaguides.todo.entity.IdNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface IdNodeRepository extends JpaRepository<IdNode, Integer> {
+
+    // Lecture en transaction read-write, donc sur la base primaire : un réplica en retard
+    // ferait manquer une instance démarrée récemment.
+    @Transactional
+    List<IdNode> findByHeartbeatAtAfter(Instant heartbeatAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdNode n SET n.heartbeatAt = :heartbeatAt WHERE n.nodeId = :nodeId AND n.processId = :processId")
+    int touch(@Param("nodeId") int nodeId, @Param("processId") String processId, @Param("heartbeatAt") Instant heartbeatAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdNode n WHERE n.heartbeatAt < :heartbeatAt")
+    void deleteByHeartbeatAtBefore(@Param("heartbeatAt") Instant heartbeatAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdNode n WHERE n.nodeId = :nodeId AND n.processId = :processId")
+    void release(@Param("nodeId") int nodeId, @Param("processId") String processId);
+}
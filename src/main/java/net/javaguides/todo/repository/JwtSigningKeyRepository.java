@@ -0,0 +1,18 @@
+package net.javaguides.todo.repository;
+
+import net.javaguides.todo.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    List<JwtSigningKey> findByCreatedAtAfterOrderByCreatedAtDesc(Instant createdAt);
+
+    @Transactional
+    void deleteByCreatedAtBefore(Instant createdAt);
+}
@@ -0,0 +1,26 @@
+package net.javaguides.todo.repository;
+
+import net.javaguides.todo.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Lecture en transaction read-write, donc sur la base primaire : un réplica en retard
+    // ferait manquer des révocations récentes.
+    @Transactional
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtBetween(Instant revokedAt, Instant expiresAfter, Instant expiresBefore);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :expiresAt")
+    void deleteByExpiresAtBefore(@Param("expiresAt") Instant expiresAt);
+}
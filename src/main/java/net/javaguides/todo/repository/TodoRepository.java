@@ -1,9 +1,16 @@
 package net.javaguides.todo.repository;
 
 import net.javaguides.todo.entity.Todo;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
+
+    List<Todo> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    long countByCompletedTrue();
 }
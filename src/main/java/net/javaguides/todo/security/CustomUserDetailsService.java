@@ -3,12 +3,14 @@ package net.javaguides.todo.security;
 
 import net.javaguides.todo.entity.User;
 import net.javaguides.todo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -21,11 +23,14 @@ public class CustomUserDetailsService implements UserDetailsService {
     // Injection de dépendance de l'interface UserRepository.
     // Cette dépendance est automatiquement résolue par Spring car UserRepository est également un composant Spring.
     // L'injection de dépendance permet d'accéder à la couche d'accès aux données (repository) pour récupérer les détails de l'utilisateur.
+    @Autowired
     private UserRepository userRepository;
 
     // Cette méthode est implémentée à partir de l'interface UserDetailsService.
     // Elle est utilisée pour charger les détails de l'utilisateur (UserDetails) en fonction du nom d'utilisateur (ou de l'email) fourni.
+    // La transaction est en lecture seule : la requête peut être envoyée vers le réplica.
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
 
         // Recherche de l'utilisateur dans la base de données en utilisant le nom d'utilisateur ou l'email fourni.
@@ -42,8 +47,10 @@ public class CustomUserDetailsService implements UserDetailsService {
         // Retourne un objet UserDetails (implémenté par la classe User de Spring Security) qui représente l'utilisateur.
         // Cet objet UserDetails est utilisé par Spring Security pour gérer l'authentification et l'autorisation de l'utilisateur.
         // Il contient des informations telles que le nom d'utilisateur, le mot de passe et les autorisations (rôles) de l'utilisateur.
+        // Le nom retenu est toujours le nom d'utilisateur, même pour une connexion par email : il devient le sujet
+        // des jetons, le propriétaire des todos et la clé de sharding, qui doivent être identiques pour un même utilisateur.
         return new org.springframework.security.core.userdetails.User(
-                usernameOrEmail, // Nom d'utilisateur (ou email) de l'utilisateur.
+                user.getUsername(), // Nom d'utilisateur de l'utilisateur.
                 user.getPassword(), // Mot de passe de l'utilisateur.
                 authorities // Liste des autorisations (rôles) de l'utilisateur.
         );
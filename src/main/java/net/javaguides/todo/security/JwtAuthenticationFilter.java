@@ -1,16 +1,19 @@
 package net.javaguides.todo.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -27,18 +30,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
-    // Injection de dépendance de l'interface UserDetailsService.
-    // Cette dépendance est automatiquement résolue par Spring car UserDetailsService est également un composant Spring.
-    // Elle est utilisée pour charger les détails de l'utilisateur (UserDetails) en fonction du nom d'utilisateur (ou de l'email) fourni.
+    // Injection de dépendance de l'index des jetons révoqués.
+    // Il permet de refuser un jeton révoqué (déconnexion, rotation) sans requête en base de données.
     @Autowired
-    private UserDetailsService userDetailsService;
+    private TokenRevocationStore tokenRevocationStore;
+
+    // Routes publiques pour lesquelles le filtre n'est pas exécuté (propriété "app.security.public-paths").
+    @Value("${app.security.public-paths}")
+    private String[] publicPaths;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
     // Constructeur de la classe JwtAuthenticationFilter.
-    // Les dépendances JwtTokenProvider et UserDetailsService sont passées en tant que paramètres.
+    // Les dépendances JwtTokenProvider et TokenRevocationStore sont passées en tant que paramètres.
     // Ces dépendances sont automatiquement injectées lors de la création de l'instance de cette classe par Spring.
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, TokenRevocationStore tokenRevocationStore) {
         this.jwtTokenProvider = jwtTokenProvider;
-        this.userDetailsService = userDetailsService;
+        this.tokenRevocationStore = tokenRevocationStore;
+    }
+
+    // Cette méthode indique à OncePerRequestFilter de ne pas exécuter le filtre pour les routes publiques :
+    // aucune lecture d'en-tête ni vérification de signature n'est alors effectuée.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String publicPath : publicPaths) {
+            if (pathMatcher.match(publicPath, path)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // Cette méthode est exécutée pour chaque requête entrante une seule fois (OncePerRequestFilter).
@@ -51,14 +72,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Récupère le jeton JWT à partir de l'en-tête "Authorization" de la requête.
         String token = getTokenFromRequest(request);
 
-        // Vérifie si le jeton est valide en utilisant la logique de validation fournie par JwtTokenProvider.
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
+        // Vérifie si le jeton est un jeton d'accès valide en utilisant la logique de validation fournie par JwtTokenProvider.
+        Claims claims = StringUtils.hasText(token) ? jwtTokenProvider.parseAccessToken(token) : null;
 
-            // Récupère le nom d'utilisateur à partir du jeton JWT.
-            String username = jwtTokenProvider.getUsername(token);
+        // Vérifie que le jeton n'a pas été révoqué (recherche en O(1) par son identifiant).
+        if (claims != null && !tokenRevocationStore.isRevoked(claims.getId())) {
 
-            // Charge les détails de l'utilisateur (UserDetails) en utilisant le nom d'utilisateur récupéré.
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // Construit les détails de l'utilisateur (UserDetails) à partir du nom d'utilisateur et des rôles contenus dans le jeton,
+            // sans recharger l'utilisateur depuis la base de données.
+            UserDetails userDetails = new User(claims.getSubject(), "", jwtTokenProvider.getAuthorities(claims));
 
             // Crée un objet UsernamePasswordAuthenticationToken pour représenter l'authentification de l'utilisateur.
             // Cet objet est utilisé par Spring Security pour gérer l'authentification de l'utilisateur.
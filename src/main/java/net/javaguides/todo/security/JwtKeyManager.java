@@ -0,0 +1,249 @@
+package net.javaguides.todo.security;
+
+import jakarta.annotation.PostConstruct;
+import net.javaguides.todo.entity.JwtSigningKey;
+import net.javaguides.todo.repository.JwtSigningKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Cette class gère les paires de clés RSA utilisées pour signer (clé privée) et vérifier (clé publique) les jetons JWT.
+// Les clés sont partagées entre les instances via la table "jwt_signing_keys" et identifiées par un "kid" (key id).
+// Une nouvelle clé est créée à chaque rotation ; les anciennes restent disponibles pour la vérification
+// tant que des jetons signés avec elles peuvent encore être valides.
+// Une nouvelle clé est d'abord publiée dans le JWKS, puis utilisée pour signer seulement après
+// "app.jwt-key-activation-delay-milliseconds" : les services qui gardent le JWKS en cache (Cache-Control max-age)
+// et les autres instances (rechargement toutes les "app.jwt-key-refresh-milliseconds") la connaissent déjà
+// lorsque les premiers jetons signés avec elle leur parviennent.
+@Component
+public class JwtKeyManager {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Intervalle minimum entre deux rechargements provoqués par un "kid" inconnu.
+    private static final long RELOAD_ON_MISS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;
+
+    // Durée pendant laquelle une clé est utilisée pour signer avant d'être remplacée.
+    private final Duration rotationInterval;
+
+    // Délai entre la publication d'une clé dans le JWKS et son utilisation pour signer.
+    private final Duration activationDelay;
+
+    // Durée pendant laquelle une clé est conservée : publication + rotation + durée de vie maximale d'un jeton.
+    private final Duration retention;
+
+    private final Supplier<Instant> clock;
+
+    // Clé utilisée actuellement pour signer les nouveaux jetons.
+    private volatile SigningKey signingKey;
+
+    // Clés publiques de vérification, indexées par "kid". La table est remplacée entièrement à chaque rechargement.
+    private volatile Map<String, PublicKey> verificationKeys = Map.of();
+
+    // Document JWKS pré-calculé, renvoyé tel quel par l'endpoint "/.well-known/jwks.json".
+    private volatile Map<String, Object> jwks = Map.of("keys", List.of());
+
+    private volatile long lastReloadNanos;
+
+    @Autowired
+    public JwtKeyManager(JwtSigningKeyRepository jwtSigningKeyRepository,
+                         @Value("${app.jwt-key-rotation-milliseconds}") long rotationMillis,
+                         @Value("${app.jwt-key-activation-delay-milliseconds}") long activationDelayMillis,
+                         @Value("${app.jwt-key-refresh-milliseconds}") long refreshMillis,
+                         @Value("${app.jwt-jwks-max-age-seconds}") long jwksMaxAgeSeconds,
+                         @Value("${app.jwt-refresh-expiration-milliseconds}") long refreshExpirationMillis) {
+        this(jwtSigningKeyRepository, rotationMillis, activationDelayMillis, refreshMillis, jwksMaxAgeSeconds,
+                refreshExpirationMillis, Instant::now);
+    }
+
+    // Constructeur utilisé par les tests pour fournir l'horloge.
+    JwtKeyManager(JwtSigningKeyRepository jwtSigningKeyRepository, long rotationMillis, long activationDelayMillis,
+                  long refreshMillis, long jwksMaxAgeSeconds, long refreshExpirationMillis, Supplier<Instant> clock) {
+        // La clé doit être connue de tous avant d'être utilisée : JWKS en cache chez les clients et clés des autres instances.
+        if (activationDelayMillis < TimeUnit.SECONDS.toMillis(jwksMaxAgeSeconds) + refreshMillis) {
+            throw new IllegalArgumentException("JWT key activation delay must cover the JWKS max-age and the key refresh interval");
+        }
+        if (activationDelayMillis >= rotationMillis) {
+            throw new IllegalArgumentException("JWT key activation delay must be shorter than the rotation interval");
+        }
+        this.jwtSigningKeyRepository = jwtSigningKeyRepository;
+        this.rotationInterval = Duration.ofMillis(rotationMillis);
+        this.activationDelay = Duration.ofMillis(activationDelayMillis);
+        this.retention = Duration.ofMillis(activationDelayMillis + rotationMillis + refreshExpirationMillis);
+        this.clock = clock;
+    }
+
+    // Charge les clés au démarrage de l'application (et en crée une si nécessaire).
+    @PostConstruct
+    public void init() {
+        refreshKeys();
+    }
+
+    // Tâche planifiée qui recharge les clés depuis la base de données, publie la clé suivante lorsque la clé courante
+    // arrive en fin de rotation (elle sera utilisée pour signer après le délai d'activation) et supprime les clés
+    // qui ne servent plus.
+    @Scheduled(fixedDelayString = "${app.jwt-key-refresh-milliseconds}", initialDelayString = "${app.jwt-key-refresh-milliseconds}")
+    public void refreshKeys() {
+        Instant now = clock.get();
+        jwtSigningKeyRepository.deleteByCreatedAtBefore(now.minus(retention));
+
+        List<JwtSigningKey> keys = new ArrayList<>(jwtSigningKeyRepository.findByCreatedAtAfterOrderByCreatedAtDesc(now.minus(retention)));
+        if (keys.isEmpty() || keys.get(0).getCreatedAt().isBefore(now.minus(rotationInterval).plus(activationDelay))) {
+            keys.add(0, jwtSigningKeyRepository.save(generateKey(now)));
+        }
+        load(keys);
+    }
+
+    // Méthode pour obtenir la clé de signature courante.
+    public SigningKey getSigningKey() {
+        return signingKey;
+    }
+
+    // Méthode pour obtenir la clé publique correspondant à un "kid" (recherche en O(1)).
+    // Si le "kid" est inconnu (clé créée récemment par une autre instance), les clés sont rechargées une fois.
+    public PublicKey getVerificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        PublicKey key = verificationKeys.get(kid);
+        if (key == null && System.nanoTime() - lastReloadNanos > RELOAD_ON_MISS_INTERVAL_NANOS) {
+            synchronized (this) {
+                key = verificationKeys.get(kid);
+                if (key == null && System.nanoTime() - lastReloadNanos > RELOAD_ON_MISS_INTERVAL_NANOS) {
+                    load(jwtSigningKeyRepository.findByCreatedAtAfterOrderByCreatedAtDesc(clock.get().minus(retention)));
+                    key = verificationKeys.get(kid);
+                }
+            }
+        }
+        return key;
+    }
+
+    // Méthode pour obtenir le document JWKS (JSON Web Key Set) contenant les clés publiques actives.
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    // Méthode privée qui remplace les clés en mémoire par celles fournies (triées de la plus récente à la plus ancienne).
+    private synchronized void load(List<JwtSigningKey> keys) {
+        Map<String, PublicKey> publicKeys = new HashMap<>();
+        List<Map<String, Object>> jwkList = new ArrayList<>();
+        for (JwtSigningKey key : keys) {
+            PublicKey publicKey = decodePublicKey(key.getPublicKey());
+            publicKeys.put(key.getKid(), publicKey);
+            jwkList.add(toJwk(key.getKid(), (RSAPublicKey) publicKey));
+        }
+
+        JwtSigningKey active = activeKey(keys);
+        if (active != null) {
+            SigningKey current = signingKey;
+            if (current == null || !current.kid().equals(active.getKid())) {
+                signingKey = new SigningKey(active.getKid(), decodePrivateKey(active.getPrivateKey()));
+            }
+        }
+        verificationKeys = Map.copyOf(publicKeys);
+        jwks = Map.of("keys", List.copyOf(jwkList));
+        lastReloadNanos = System.nanoTime();
+    }
+
+    // Méthode privée qui choisit la clé de signature : la plus récente publiée depuis au moins le délai d'activation.
+    // Si aucune ne l'est encore (première clé de l'application), la plus ancienne est utilisée : aucun jeton
+    // n'a encore été émis, aucun client ne peut avoir un JWKS en cache sans elle.
+    private JwtSigningKey activeKey(List<JwtSigningKey> keys) {
+        Instant activatedBefore = clock.get().minus(activationDelay);
+        for (JwtSigningKey key : keys) {
+            if (!key.getCreatedAt().isAfter(activatedBefore)) {
+                return key;
+            }
+        }
+        return keys.isEmpty() ? null : keys.get(keys.size() - 1);
+    }
+
+    // Méthode privée qui génère une nouvelle paire de clés RSA 2048 bits avec un "kid" aléatoire.
+    private static JwtSigningKey generateKey(Instant now) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+
+            byte[] kid = new byte[12];
+            RANDOM.nextBytes(kid);
+
+            return new JwtSigningKey(
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(kid),
+                    Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                    Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()),
+                    now
+            );
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate JWT signing key", e);
+        }
+    }
+
+    private static PrivateKey decodePrivateKey(String encoded) {
+        try {
+            return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT private key", e);
+        }
+    }
+
+    private static PublicKey decodePublicKey(String encoded) {
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT public key", e);
+        }
+    }
+
+    // Méthode privée qui convertit une clé publique RSA au format JWK (RFC 7517).
+    private static Map<String, Object> toJwk(String kid, RSAPublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("kid", kid);
+        jwk.put("n", toBase64Url(publicKey.getModulus()));
+        jwk.put("e", toBase64Url(publicKey.getPublicExponent()));
+        return jwk;
+    }
+
+    // Encode un entier non signé en Base64 URL sans l'octet de signe éventuel.
+    private static String toBase64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] unsigned = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, unsigned, 0, unsigned.length);
+            bytes = unsigned;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // Clé privée de signature associée à son "kid".
+    public record SigningKey(String kid, PrivateKey privateKey) {
+    }
+}
@@ -1,90 +1,147 @@
 package net.javaguides.todo.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import net.javaguides.todo.exception.TodoAPIException;
+import io.jsonwebtoken.io.Encoders;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 //Avec cette class, On va pouvoir créer et vérifier des jetons et aussi récupérer un username par le jeton.
 @Component
 public class JwtTokenProvider {
 
-    // L'annotation @Value est utilisée pour injecter les valeurs des propriétés de configuration définies dans les fichiers de propriétés(applications.properties).
-    // Dans ce cas, les propriétés "app.jwt-secret" et "app.jwt-expiration-milliseconds" seront injectées depuis les fichiers de configuration.
-    @Value("${app.jwt-secret}")
-    private String jwtSecret;
+    // Nom de la revendication (claim) qui indique s'il s'agit d'un jeton d'accès ou de rafraîchissement.
+    private static final String TOKEN_TYPE_CLAIM = "token_type";
+    private static final String ACCESS_TOKEN_TYPE = "access";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    // Nom de la revendication qui contient les rôles de l'utilisateur dans le jeton d'accès.
+    private static final String ROLES_CLAIM = "roles";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
 
+    // L'annotation @Value est utilisée pour injecter les valeurs des propriétés de configuration définies dans les fichiers de propriétés(applications.properties).
+    // Dans ce cas, les propriétés "app.jwt-expiration-milliseconds" et "app.jwt-refresh-expiration-milliseconds"
+    // seront injectées depuis les fichiers de configuration.
     @Value("${app.jwt-expiration-milliseconds}")
     private long jwtExpirationDate;
 
-    // Méthode pour générer un jeton JWT à partir des informations d'authentification fournies.
-    // Elle prend un objet d'authentification (Authentication) en tant que paramètre, à partir duquel elle extrait le nom d'utilisateur.
+    @Value("${app.jwt-refresh-expiration-milliseconds}")
+    private long jwtRefreshExpirationDate;
+
+    // Gestionnaire des clés RSA de signature et de vérification.
+    private final JwtKeyManager jwtKeyManager;
+
+    // Parseur JWT construit une seule fois : il est immuable et peut être partagé entre les threads.
+    // La clé de vérification est choisie à partir du "kid" présent dans l'en-tête du jeton.
+    private final JwtParser jwtParser;
+
+    public JwtTokenProvider(JwtKeyManager jwtKeyManager) {
+        this.jwtKeyManager = jwtKeyManager;
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = jwtKeyManager.getVerificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new JwtException("Unknown JWT key id");
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    // Méthode pour générer un jeton d'accès JWT (de courte durée) à partir des informations d'authentification fournies.
+    // Les rôles de l'utilisateur sont ajoutés au jeton pour éviter de recharger l'utilisateur à chaque requête.
     public String generateToken(Authentication authentication) {
-        String username = authentication.getName();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+
+        return sign(Jwts.builder()
+                .setId(newTokenId())
+                .setSubject(authentication.getName())
+                .claim(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE)
+                .claim(ROLES_CLAIM, roles)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationDate)));
+    }
 
-        Date currentDate = new Date();
+    // Méthode pour générer un jeton de rafraîchissement (de longue durée) pour l'utilisateur authentifié.
+    // Ce jeton ne permet pas d'accéder à l'API, il sert uniquement à obtenir une nouvelle paire de jetons.
+    public String generateRefreshToken(Authentication authentication) {
+        return sign(Jwts.builder()
+                .setId(newTokenId())
+                .setSubject(authentication.getName())
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationDate)));
+    }
 
-        Date expireDate = new Date(currentDate.getTime() + jwtExpirationDate);
+    // Méthode qui renvoie la durée de validité d'un jeton d'accès, en millisecondes.
+    public long getAccessTokenValidity() {
+        return jwtExpirationDate;
+    }
 
-        // Génère le jeton JWT en utilisant la bibliothèque JJWT (Java JWT).
-        // Elle utilise le nom d'utilisateur comme sujet, la date actuelle comme date d'émission (issuedAt),
-        // la date d'expiration (expireDate) et une clé secrète pour signer le jeton.
-        // La méthode compact() génère la chaîne du jeton JWT.
-        String token = Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(expireDate)
-                .signWith(key())
+    // Méthode privée qui signe le jeton en RS256 avec la clé privée courante et ajoute son "kid" dans l'en-tête,
+    // ce qui permet à n'importe quel service de vérifier le jeton avec la clé publique publiée dans le JWKS.
+    private String sign(JwtBuilder builder) {
+        JwtKeyManager.SigningKey signingKey = jwtKeyManager.getSigningKey();
+        return builder
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.RS256)
                 .compact();
-
-        return token;
     }
 
-    // Méthode privée pour créer la clé de signature à partir de la clé secrète JWT (jwtSecret).
-    // Elle décode la clé secrète Base64 et la retourne comme une clé HMAC (clé de signature).
-    private Key key() {
-        return Keys.hmacShaKeyFor(
-                Decoders.BASE64.decode(jwtSecret)
-        );
+    // Méthode privée qui génère un identifiant de jeton (jti) compact : 128 bits aléatoires encodés en Base64 URL (22 caractères).
+    private static String newTokenId() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        return Encoders.BASE64URL.encode(bytes).replace("=", "");
     }
 
-    // Méthode pour obtenir le nom d'utilisateur à partir du jeton JWT.
-    public String getUsername(String token) {
-        // Parse le jeton JWT pour obtenir les revendications (claims).
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Méthode pour valider un jeton d'accès et obtenir ses revendications (claims).
+    // Renvoie null si le jeton est invalide, expiré, ou s'il ne s'agit pas d'un jeton d'accès.
+    public Claims parseAccessToken(String token) {
+        return parseToken(token, ACCESS_TOKEN_TYPE);
+    }
 
-        // Obtient le nom d'utilisateur à partir des revendications.
-        String username = claims.getSubject();
+    // Méthode pour valider un jeton de rafraîchissement et obtenir ses revendications (claims).
+    // Renvoie null si le jeton est invalide, expiré, ou s'il ne s'agit pas d'un jeton de rafraîchissement.
+    public Claims parseRefreshToken(String token) {
+        return parseToken(token, REFRESH_TOKEN_TYPE);
+    }
 
-        return username;
+    // Méthode pour obtenir les autorisations (rôles) stockées dans un jeton d'accès.
+    public Collection<GrantedAuthority> getAuthorities(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream()
+                .map((role) -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
     }
 
-    // Méthode pour valider si le jeton JWT est valide.
-    public boolean validateToken(String token) {
-        // Parse le jeton JWT pour vérifier sa validité.
-        // Si le jeton est invalide (par exemple, la signature est incorrecte ou le jeton a expiré),
-        // une exception sera levée par la méthode parse(), indiquant que le jeton n'est pas valide.
+    // Méthode privée qui parse le jeton une seule fois et vérifie son type.
+    // Si le jeton est invalide (par exemple, la signature est incorrecte ou le jeton a expiré),
+    // une exception est levée par le parseur et la méthode renvoie null.
+    private Claims parseToken(String token, String expectedType) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parse(token);
-            return true;
-        } catch (JwtException e) {
-            // En cas d'erreur de validation du jeton (JwtException), la méthode renverra false.
-            return false;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            return expectedType.equals(claims.get(TOKEN_TYPE_CLAIM, String.class)) ? claims : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
 }
-
@@ -0,0 +1,112 @@
+package net.javaguides.todo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cette class limite le nombre de tentatives de connexion par adresse IP et par usernameOrEmail.
+// Elle est appelée avant toute authentification, ce qui permet de rejeter une requête
+// sans effectuer la vérification BCrypt (coûteuse en CPU).
+// L'adresse IP est celle du client, et non celle du répartiteur de charge : Tomcat la lit dans l'en-tête
+// X-Forwarded-For envoyé par un proxy de confiance (server.forward-headers-strategy=native).
+@Component
+public class LoginRateLimiter {
+
+    // Stockage des seaux de jetons par adresse IP.
+    private final TokenBucketStore ipBuckets;
+
+    // Stockage des seaux de jetons par nom d'utilisateur ou e-mail.
+    private final TokenBucketStore userBuckets;
+
+    // Compteurs des requêtes rejetées, exposés via Micrometer (/actuator/metrics/auth.login.throttled).
+    private final Counter ipThrottled;
+    private final Counter userThrottled;
+
+    public LoginRateLimiter(@Value("${app.login-rate-limit.ip-capacity}") int ipCapacity,
+                            @Value("${app.login-rate-limit.ip-refill-milliseconds}") long ipRefillMillis,
+                            @Value("${app.login-rate-limit.user-capacity}") int userCapacity,
+                            @Value("${app.login-rate-limit.user-refill-milliseconds}") long userRefillMillis,
+                            @Value("${app.login-rate-limit.max-keys}") int maxKeys,
+                            MeterRegistry meterRegistry) {
+        this.ipBuckets = new TokenBucketStore(ipCapacity, ipRefillMillis, maxKeys);
+        this.userBuckets = new TokenBucketStore(userCapacity, userRefillMillis, maxKeys);
+        this.ipThrottled = meterRegistry.counter("auth.login.throttled", "limit", "ip");
+        this.userThrottled = meterRegistry.counter("auth.login.throttled", "limit", "user");
+        meterRegistry.gauge("auth.login.rate-limit.keys", this, limiter -> limiter.ipBuckets.size() + limiter.userBuckets.size());
+    }
+
+    // Méthode pour consommer un jeton pour l'adresse IP et un jeton pour l'utilisateur.
+    // Renvoie false si l'une des deux limites est atteinte.
+    public boolean tryAcquire(String clientIp, String usernameOrEmail) {
+        long now = System.nanoTime();
+
+        if (!ipBuckets.tryConsume(clientIp, now)) {
+            ipThrottled.increment();
+            return false;
+        }
+
+        String userKey = usernameOrEmail == null ? "" : usernameOrEmail.trim().toLowerCase(Locale.ROOT);
+        if (!userBuckets.tryConsume(userKey, now)) {
+            userThrottled.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // Seau de jetons sans verrou basé sur l'algorithme GCRA (Generic Cell Rate Algorithm).
+    // Pour chaque clé, on ne stocke qu'un seul long : l'instant théorique (en nanosecondes) auquel
+    // le seau sera de nouveau plein. Une consommation est un simple compareAndSet sur cette valeur.
+    // Les clés sont conservées dans un cache Caffeine borné : une clé inactive depuis la durée d'un seau plein
+    // (seau de nouveau plein) expire, et lorsque le cache est plein, Caffeine évince les clés les moins utilisées
+    // en temps constant. Une clé attaquée, souvent utilisée, reste donc suivie même si d'autres clés sont inondées.
+    static final class TokenBucketStore {
+
+        private final Cache<String, AtomicLong> buckets;
+
+        // Durée nécessaire pour regagner un jeton.
+        private final long refillNanos;
+
+        // Durée correspondant à un seau plein (capacité * durée d'un jeton).
+        private final long burstNanos;
+
+        TokenBucketStore(int capacity, long refillMillis, int maxKeys) {
+            this.refillNanos = TimeUnit.MILLISECONDS.toNanos(refillMillis);
+            this.burstNanos = refillNanos * capacity;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(burstNanos))
+                    .build();
+        }
+
+        boolean tryConsume(String key, long now) {
+            AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+            if (fullAt == null) {
+                // Aucun seau n'a pu être obtenu : la tentative est refusée plutôt que de ne pas être limitée.
+                return false;
+            }
+
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + refillNanos;
+                if (next - now > burstNanos) {
+                    return false;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        long size() {
+            return buckets.estimatedSize();
+        }
+    }
+}
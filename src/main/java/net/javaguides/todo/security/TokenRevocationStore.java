@@ -0,0 +1,105 @@
+package net.javaguides.todo.security;
+
+import jakarta.annotation.PostConstruct;
+import net.javaguides.todo.entity.RevokedToken;
+import net.javaguides.todo.repository.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cette class gère les identifiants (jti) des jetons révoqués jusqu'à leur expiration.
+// Les révocations sont enregistrées dans la table "revoked_tokens", partagée entre les instances :
+// - la révocation d'un jeton de rafraîchissement est une insertion sur la clé primaire, atomique pour toutes
+//   les instances, ce qui garantit qu'un jeton n'est utilisé qu'une seule fois, même après un redémarrage ;
+// - la vérification d'un jeton d'accès, faite à chaque requête, est une simple recherche dans une table de hachage
+//   en mémoire (O(1)), sans requête en base de données. Cette table est alimentée par les révocations de
+//   cette instance et rechargée périodiquement avec celles des autres instances.
+@Component
+public class TokenRevocationStore {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    // Durée de validité d'un jeton d'accès : seuls les jetons révoqués expirant dans ce délai
+    // doivent être connus en mémoire.
+    private final Duration accessTokenValidity;
+
+    // Intervalle de rechargement des révocations des autres instances.
+    private final Duration refreshInterval;
+
+    // Identifiant du jeton révoqué -> date d'expiration du jeton (en millisecondes).
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // Date du dernier rechargement depuis la base de données.
+    private volatile Instant lastRefresh;
+
+    public TokenRevocationStore(RevokedTokenRepository revokedTokenRepository,
+                                @Value("${app.jwt-expiration-milliseconds}") long accessTokenValidityMillis,
+                                @Value("${app.jwt-revocation-refresh-milliseconds}") long refreshIntervalMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.accessTokenValidity = Duration.ofMillis(accessTokenValidityMillis);
+        this.refreshInterval = Duration.ofMillis(refreshIntervalMillis);
+    }
+
+    // Charge au démarrage les jetons révoqués qui peuvent encore être des jetons d'accès valides.
+    @PostConstruct
+    public void init() {
+        Instant now = Instant.now();
+        load(now.minus(accessTokenValidity), now);
+    }
+
+    // Méthode pour révoquer un jeton jusqu'à sa date d'expiration.
+    // Renvoie true si le jeton vient d'être révoqué, false s'il l'était déjà (sur cette instance ou une autre).
+    // Cette opération est atomique : elle permet de garantir qu'un jeton de rafraîchissement n'est utilisé qu'une seule fois.
+    public boolean revoke(String tokenId, Date expiration) {
+        if (tokenId == null) {
+            return false;
+        }
+        boolean revoked;
+        try {
+            revokedTokenRepository.saveAndFlush(new RevokedToken(tokenId, expiration.toInstant(), Instant.now()));
+            revoked = true;
+        } catch (DataIntegrityViolationException e) {
+            revoked = false;
+        }
+        revokedTokens.put(tokenId, expiration.getTime());
+        return revoked;
+    }
+
+    // Méthode pour savoir si un jeton a été révoqué.
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revokedTokens.containsKey(tokenId);
+    }
+
+    // Tâche planifiée qui recharge les révocations enregistrées depuis le dernier rechargement.
+    // La fenêtre est élargie d'un intervalle pour tolérer un léger décalage d'horloge entre les instances.
+    @Scheduled(fixedDelayString = "${app.jwt-revocation-refresh-milliseconds}",
+            initialDelayString = "${app.jwt-revocation-refresh-milliseconds}")
+    public void refresh() {
+        Instant now = Instant.now();
+        load(lastRefresh.minus(refreshInterval), now);
+    }
+
+    // Tâche planifiée qui supprime les jetons expirés : une fois expiré, un jeton est de toute façon refusé.
+    @Scheduled(fixedDelayString = "${app.jwt-revocation-purge-interval-milliseconds}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+        revokedTokenRepository.deleteByExpiresAtBefore(Instant.ofEpochMilli(now));
+    }
+
+    // Méthode privée qui ajoute en mémoire les jetons révoqués depuis "revokedAfter" et encore valides
+    // en tant que jetons d'accès (les jetons de rafraîchissement sont vérifiés en base lors de leur révocation).
+    private void load(Instant revokedAfter, Instant now) {
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtBetween(
+                revokedAfter, now, now.plus(accessTokenValidity))) {
+            revokedTokens.put(token.getJti(), token.getExpiresAt().toEpochMilli());
+        }
+        lastRefresh = now;
+    }
+}
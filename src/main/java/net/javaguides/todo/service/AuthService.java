@@ -1,5 +1,6 @@
 package net.javaguides.todo.service;
 
+import net.javaguides.todo.dto.JwtAuthResponse;
 import net.javaguides.todo.dto.LoginDto;
 import net.javaguides.todo.dto.RegisterDto;
 
@@ -7,5 +8,9 @@ import net.javaguides.todo.dto.RegisterDto;
 public interface AuthService {
     String register(RegisterDto registerDto);
 
-    String login(LoginDto loginDto);
+    JwtAuthResponse login(LoginDto loginDto);
+
+    JwtAuthResponse refresh(String refreshToken);
+
+    void logout(String accessToken, String refreshToken);
 }
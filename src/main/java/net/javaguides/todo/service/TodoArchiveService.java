@@ -0,0 +1,11 @@
+package net.javaguides.todo.service;
+
+import net.javaguides.todo.dto.TodoArchiveStatusDto;
+
+public interface TodoArchiveService {
+
+    // Démarre l'archivage en arrière-plan ; renvoie false si un archivage est déjà en cours.
+    boolean startArchive();
+
+    TodoArchiveStatusDto getStatus();
+}
@@ -8,10 +8,14 @@ public interface TodoService {
 
     TodoDto addTodo(TodoDto todoDto);
 
+    List<TodoDto> addTodos(List<TodoDto> todoDtos);
+
     TodoDto getTodo(Long id);
 
     List<TodoDto> getAllTodos();
 
+    List<TodoDto> getTodos(Long afterId, int limit);
+
     TodoDto updateTodo(TodoDto todoDto, Long id);
 
     void deleteTodo(Long id);
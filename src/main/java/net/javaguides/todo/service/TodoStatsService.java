@@ -0,0 +1,12 @@
+package net.javaguides.todo.service;
+
+import net.javaguides.todo.dto.TodoStatsDto;
+
+public interface TodoStatsService {
+
+    TodoStatsDto getStats();
+
+    // Enregistre la variation du nombre total de todos et du nombre de todos complétés
+    // après le commit de la transaction courante.
+    void recordChange(long totalDelta, long completedDelta);
+}
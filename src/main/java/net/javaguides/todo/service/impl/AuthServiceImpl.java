@@ -1,6 +1,9 @@
 package net.javaguides.todo.service.impl;
 
-import lombok.AllArgsConstructor;
+import io.jsonwebtoken.Claims;
+import net.javaguides.todo.audit.AuditAction;
+import net.javaguides.todo.audit.AuditLog;
+import net.javaguides.todo.dto.JwtAuthResponse;
 import net.javaguides.todo.dto.LoginDto;
 import net.javaguides.todo.dto.RegisterDto;
 import net.javaguides.todo.entity.Role;
@@ -9,15 +12,22 @@ import net.javaguides.todo.exception.TodoAPIException;
 import net.javaguides.todo.repository.RoleRepository;
 import net.javaguides.todo.repository.UserRepository;
 import net.javaguides.todo.security.JwtTokenProvider;
+import net.javaguides.todo.security.TokenRevocationStore;
 import net.javaguides.todo.service.AuthService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -28,9 +38,14 @@ import java.util.Set;
 
 
 @Service
-@AllArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
+    // Noms des contraintes d'unicité de la table "users" (voir User et les migrations Flyway).
+    // Le message d'erreur de certaines bases contient aussi la requête SQL, où figurent les noms de colonnes :
+    // on recherche donc le nom complet de la contrainte, pas seulement le nom de la colonne.
+    private static final String USERNAME_CONSTRAINT = "uk_users_username";
+    private static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     // Injection de dépendance du repository UserRepository.
     @Autowired
     private UserRepository userRepository;
@@ -51,20 +66,32 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    // Injection de dépendance de l'index des jetons révoqués.
+    @Autowired
+    private TokenRevocationStore tokenRevocationStore;
+
+    // Injection de dépendance du service de chargement des utilisateurs, utilisé lors du rafraîchissement des jetons.
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    // Injection de dépendance du TransactionTemplate, utilisé pour délimiter l'insertion de l'utilisateur.
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Identifiant du rôle par défaut "ROLE_USER", chargé une seule fois puis mis en cache.
+    private volatile Long defaultRoleId;
+
+    // Injection de dépendance du journal d'audit (écriture asynchrone).
+    @Autowired
+    private AuditLog auditLog;
+
     // Méthode pour l'inscription d'un nouvel utilisateur à partir des informations de RegisterDto.
+    // L'inscription est une insertion optimiste : on ne vérifie pas l'existence du nom d'utilisateur
+    // ou de l'e-mail au préalable, ce sont les contraintes d'unicité de la table "users" qui garantissent
+    // l'absence de doublons, même lorsque plusieurs inscriptions arrivent en parallèle.
     @Override
     public String register(RegisterDto registerDto) {
 
-        // Vérifie si le nom d'utilisateur existe déjà dans la base de données.
-        if (userRepository.existsByUsername(registerDto.getUsername())) {
-            throw new TodoAPIException(HttpStatus.BAD_REQUEST, "Username already exists!");
-        }
-
-        // Vérifie si l'adresse e-mail existe déjà dans la base de données.
-        if (userRepository.existsByEmail(registerDto.getEmail())) {
-            throw new TodoAPIException(HttpStatus.BAD_REQUEST, "Email is already exists!.");
-        }
-
         // Crée une nouvelle instance de l'entité User à partir des informations du RegisterDto.
         User user = new User();
         user.setName(registerDto.getName());
@@ -72,38 +99,166 @@ public class AuthServiceImpl implements AuthService {
         user.setEmail(registerDto.getEmail());
         user.setPassword(passwordEncoder.encode(registerDto.getPassword()));
 
-        // Crée un ensemble de rôles pour l'utilisateur, dans ce cas, seul le rôle "ROLE_USER" est attribué.
-        Set<Role> roles = new HashSet<>();
-        Role userRole = roleRepository.findByName("ROLE_USER");
-        roles.add(userRole);
-
-        // Affecte les rôles à l'utilisateur.
-        user.setRoles(roles);
+        try {
+            insertUser(user);
+        } catch (DataIntegrityViolationException e) {
+            // Traduit la violation de contrainte en message métier.
+            RuntimeException duplicate = toDuplicateUserException(e, registerDto);
+            if (duplicate != e) {
+                throw duplicate;
+            }
 
-        // Enregistre l'utilisateur dans la base de données en utilisant le UserRepository.
-        userRepository.save(user);
+            // Ce n'est pas un doublon : le rôle par défaut mis en cache n'existe peut-être plus
+            // (rôle supprimé puis recréé). Son identifiant est relu et l'insertion est retentée une fois.
+            defaultRoleId = null;
+            user.setId(null);
+            try {
+                insertUser(user);
+            } catch (DataIntegrityViolationException retryException) {
+                throw toDuplicateUserException(retryException, registerDto);
+            }
+        }
 
         return "User Registered Successfully!.";
     }
 
+    // Méthode privée pour insérer l'utilisateur avec le rôle par défaut, dans sa propre transaction.
+    private void insertUser(User user) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Crée un ensemble de rôles pour l'utilisateur, dans ce cas, seul le rôle "ROLE_USER" est attribué.
+            // getReferenceById renvoie une référence vers le rôle sans exécuter de requête SELECT.
+            Set<Role> roles = new HashSet<>();
+            roles.add(roleRepository.getReferenceById(getDefaultRoleId()));
+
+            // Affecte les rôles à l'utilisateur.
+            user.setRoles(roles);
+
+            // Enregistre l'utilisateur dans la base de données et force l'insertion immédiate
+            // pour que les violations de contraintes soient levées ici.
+            userRepository.saveAndFlush(user);
+
+            auditLog.record(AuditAction.REGISTER, user.getUsername(), String.valueOf(user.getId()));
+        });
+    }
+
+    // Méthode privée pour récupérer l'identifiant du rôle par défaut.
+    // La requête n'est exécutée qu'au premier appel, les appels suivants utilisent la valeur en cache.
+    private Long getDefaultRoleId() {
+        Long roleId = defaultRoleId;
+        if (roleId == null) {
+            Role userRole = roleRepository.findByName("ROLE_USER");
+            if (userRole == null) {
+                throw new TodoAPIException(HttpStatus.INTERNAL_SERVER_ERROR, "Default role ROLE_USER does not exist!");
+            }
+            roleId = userRole.getId();
+            defaultRoleId = roleId;
+        }
+        return roleId;
+    }
+
+    // Méthode privée pour convertir une violation de contrainte en TodoAPIException.
+    // Les noms des deux contraintes sont comparés en premier ; si aucun ne correspond,
+    // on interroge la base (uniquement dans ce cas d'erreur, jamais dans le cas nominal).
+    private RuntimeException toDuplicateUserException(DataIntegrityViolationException e, RegisterDto registerDto) {
+        String constraintName = null;
+        if (e.getCause() instanceof ConstraintViolationException violation) {
+            constraintName = violation.getConstraintName();
+        }
+        String constraint = constraintName != null ? constraintName.toLowerCase() : "";
+
+        if (constraint.contains(USERNAME_CONSTRAINT)) {
+            return duplicateUsername();
+        }
+        if (constraint.contains(EMAIL_CONSTRAINT)) {
+            return duplicateEmail();
+        }
+        if (userRepository.existsByUsername(registerDto.getUsername())) {
+            return duplicateUsername();
+        }
+        if (userRepository.existsByEmail(registerDto.getEmail())) {
+            return duplicateEmail();
+        }
+        return e;
+    }
+
+    private static TodoAPIException duplicateUsername() {
+        return new TodoAPIException(HttpStatus.BAD_REQUEST, "Username already exists!");
+    }
+
+    private static TodoAPIException duplicateEmail() {
+        return new TodoAPIException(HttpStatus.BAD_REQUEST, "Email is already exists!.");
+    }
+
     // Méthode pour la connexion d'un utilisateur à partir des informations de LoginDto.
     @Override
-    public String login(LoginDto loginDto) {
+    public JwtAuthResponse login(LoginDto loginDto) {
 
         // Authentifie l'utilisateur en utilisant l'objet AuthenticationManager.
         // Il utilise les informations de connexion fournies dans le LoginDto pour effectuer l'authentification.
-        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
-                loginDto.getUsernameOrEmail(),
-                loginDto.getPassword()
-        ));
+        // Chaque tentative, réussie ou non, est enregistrée dans le journal d'audit.
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(
+                    loginDto.getUsernameOrEmail(),
+                    loginDto.getPassword()
+            ));
+        } catch (AuthenticationException e) {
+            auditLog.record(AuditAction.LOGIN_FAILED, loginDto.getUsernameOrEmail(), null);
+            throw e;
+        }
+        auditLog.record(AuditAction.LOGIN, authentication.getName(), null);
 
         // Définit l'objet Authentication comme l'authentification actuelle dans le contexte de sécurité.
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // Génère le jeton JWT à partir de l'authentification réussie et le renvoie.
-        String token = jwtTokenProvider.generateToken(authentication);
+        // Génère la paire jeton d'accès / jeton de rafraîchissement et la renvoie.
+        return issueTokens(authentication);
+    }
+
+    // Méthode pour obtenir une nouvelle paire de jetons à partir d'un jeton de rafraîchissement.
+    // Le jeton de rafraîchissement est à usage unique : il est révoqué avant d'émettre la nouvelle paire (rotation).
+    @Override
+    public JwtAuthResponse refresh(String refreshToken) {
+
+        // Vérifie la signature, l'expiration et le type du jeton.
+        Claims claims = refreshToken == null ? null : jwtTokenProvider.parseRefreshToken(refreshToken);
+
+        // La révocation est atomique : si deux requêtes présentent le même jeton, une seule obtient une nouvelle paire.
+        if (claims == null || !tokenRevocationStore.revoke(claims.getId(), claims.getExpiration())) {
+            throw new TodoAPIException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token!");
+        }
 
-        return token;
+        // Recharge l'utilisateur pour obtenir ses rôles à jour (une seule requête, uniquement lors du rafraîchissement).
+        UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userDetails.getUsername(),
+                null,
+                userDetails.getAuthorities()
+        );
+
+        return issueTokens(authentication);
     }
-}
 
+    // Méthode pour la déconnexion : révoque le jeton d'accès et le jeton de rafraîchissement fournis.
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        Claims accessClaims = accessToken == null ? null : jwtTokenProvider.parseAccessToken(accessToken);
+        if (accessClaims != null) {
+            tokenRevocationStore.revoke(accessClaims.getId(), accessClaims.getExpiration());
+        }
+
+        Claims refreshClaims = refreshToken == null ? null : jwtTokenProvider.parseRefreshToken(refreshToken);
+        if (refreshClaims != null) {
+            tokenRevocationStore.revoke(refreshClaims.getId(), refreshClaims.getExpiration());
+        }
+    }
+
+    // Méthode privée pour générer la réponse contenant le jeton d'accès et le jeton de rafraîchissement.
+    private JwtAuthResponse issueTokens(Authentication authentication) {
+        JwtAuthResponse jwtAuthResponse = new JwtAuthResponse();
+        jwtAuthResponse.setAccessToken(jwtTokenProvider.generateToken(authentication));
+        jwtAuthResponse.setRefreshToken(jwtTokenProvider.generateRefreshToken(authentication));
+        jwtAuthResponse.setExpiresIn(jwtTokenProvider.getAccessTokenValidity() / 1000);
+        return jwtAuthResponse;
+    }
+}
@@ -0,0 +1,252 @@
+package net.javaguides.todo.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import net.javaguides.todo.cache.AfterCommit;
+import net.javaguides.todo.cache.InvalidationBus;
+import net.javaguides.todo.cache.InvalidationEvent;
+import net.javaguides.todo.cache.TodoCache;
+import net.javaguides.todo.dto.TodoArchiveStatusDto;
+import net.javaguides.todo.id.SnowflakeIdGenerator;
+import net.javaguides.todo.service.TodoArchiveService;
+import net.javaguides.todo.service.TodoStatsService;
+import net.javaguides.todo.sharding.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Archivage des todos complétés depuis plus de "app.archive.max-age-days" jours :
+// ils sont déplacés de la table "todos" vers la table "todos_archive", shard par shard.
+// - Les todos sont parcourus par plages d'identifiants croissants ("app.archive.batch-size" lignes par plage),
+//   chaque plage étant archivée dans sa propre transaction courte.
+// - Une pause ("app.archive.batch-pause-milliseconds") sépare deux plages pour limiter l'impact sur le trafic.
+// - Seuls les todos complétés sont parcourus (index "idx_todos_completed_id" sur (completed, id)).
+// - Le dernier identifiant traité est enregistré dans "todos_archive_checkpoint" avec chaque plage :
+//   après un redémarrage, l'archivage reprend là où il s'était arrêté.
+// - À la fin d'un passage, le point de reprise devient le plus petit identifiant restant dans "todos" (moins 1) :
+//   le passage suivant ne parcourt pas les identifiants déjà archivés, mais revoit les todos plus anciens
+//   qui n'étaient pas encore archivables (non complétés ou modifiés récemment).
+// Les identifiants étant croissants dans le temps, seuls les todos créés avant la date limite sont parcourus.
+@Service
+public class TodoArchiveServiceImpl implements TodoArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoArchiveServiceImpl.class);
+
+    private static final String JOB = "todos";
+
+    private static final String SELECT_RANGE_END_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM todos WHERE completed = TRUE AND id > ? AND id < ? ORDER BY id LIMIT ?) batch";
+
+    private static final String SELECT_LOW_WATER_MARK_SQL = "SELECT MIN(id) FROM todos";
+
+    private static final String ARCHIVABLE_CONDITION =
+            " WHERE id > ? AND id <= ? AND completed = TRUE AND updated_at < ?";
+
+    private static final String LOCK_SQL = "SELECT id FROM todos" + ARCHIVABLE_CONDITION + " FOR UPDATE";
+
+    private static final String COPY_SQL =
+            "INSERT INTO todos_archive (id, title, description, completed, owner, created_at, updated_at) "
+                    + "SELECT id, title, description, completed, owner, created_at, updated_at FROM todos"
+                    + ARCHIVABLE_CONDITION;
+
+    private static final String DELETE_SQL = "DELETE FROM todos" + ARCHIVABLE_CONDITION;
+
+    private static final String SELECT_CHECKPOINT_SQL = "SELECT last_id FROM todos_archive_checkpoint WHERE job = ?";
+
+    // Mise à jour puis insertion si la ligne n'existe pas encore (SQL standard, sans "ON DUPLICATE KEY UPDATE").
+    private static final String UPDATE_CHECKPOINT_SQL =
+            "UPDATE todos_archive_checkpoint SET last_id = ?, updated_at = CURRENT_TIMESTAMP(6) WHERE job = ?";
+
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO todos_archive_checkpoint (job, last_id, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP(6))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final TodoCache todoCache;
+    private final InvalidationBus invalidationBus;
+    private final TodoStatsService todoStatsService;
+
+    private final boolean scheduled;
+    private final Duration maxAge;
+    private final int batchSize;
+    private final long batchPauseMillis;
+
+    // Thread unique exécutant l'archivage, pour ne pas bloquer le thread des tâches planifiées ni la requête HTTP.
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "todo-archive");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong archivedInRun = new AtomicLong();
+    private final AtomicLong archivedTotal = new AtomicLong();
+    private volatile Instant lastStartedAt;
+    private volatile Instant lastFinishedAt;
+    private volatile String lastError;
+
+    public TodoArchiveServiceImpl(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  ShardRouter shardRouter,
+                                  TodoCache todoCache,
+                                  InvalidationBus invalidationBus,
+                                  TodoStatsService todoStatsService,
+                                  @Value("${app.archive.enabled}") boolean scheduled,
+                                  @Value("${app.archive.max-age-days}") long maxAgeDays,
+                                  @Value("${app.archive.batch-size}") int batchSize,
+                                  @Value("${app.archive.batch-pause-milliseconds}") long batchPauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.todoCache = todoCache;
+        this.invalidationBus = invalidationBus;
+        this.todoStatsService = todoStatsService;
+        this.scheduled = scheduled;
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    // Exécution planifiée de l'archivage, lorsque "app.archive.enabled=true" (désactivée par défaut :
+    // avec plusieurs instances, une seule doit l'activer, ou l'archivage est lancé via l'API d'administration).
+    @Scheduled(initialDelayString = "${app.archive.interval-milliseconds}",
+            fixedDelayString = "${app.archive.interval-milliseconds}")
+    public void scheduledArchive() {
+        if (scheduled) {
+            startArchive();
+        }
+    }
+
+    @Override
+    public boolean startArchive() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        lastStartedAt = Instant.now();
+        archivedInRun.set(0);
+        lastError = null;
+        executor.execute(this::archive);
+        return true;
+    }
+
+    @Override
+    public TodoArchiveStatusDto getStatus() {
+        return new TodoArchiveStatusDto(running.get(), lastStartedAt, lastFinishedAt,
+                archivedInRun.get(), archivedTotal.get(), lastError);
+    }
+
+    // Archive les todos de chaque shard, l'une après l'autre.
+    private void archive() {
+        Instant cutoff = lastStartedAt.minus(maxAge);
+        try {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                archiveShard(shard, cutoff);
+            }
+        } catch (InterruptedException e) {
+            // Arrêt de l'application : le point de reprise permettra de continuer au prochain démarrage.
+            Thread.currentThread().interrupt();
+            lastError = "Interrupted";
+        } catch (RuntimeException e) {
+            logger.error("Todo archival failed", e);
+            lastError = e.getMessage();
+        } finally {
+            lastFinishedAt = Instant.now();
+            running.set(false);
+            logger.info("Todo archival finished: {} todos archived", archivedInRun.get());
+        }
+    }
+
+    private void archiveShard(int shard, Instant cutoff) throws InterruptedException {
+        // Tous les todos créés avant la date limite ont un identifiant inférieur à cette borne.
+        long upperId = SnowflakeIdGenerator.minIdAt(cutoff.toEpochMilli());
+        Timestamp cutoffTimestamp = Timestamp.from(cutoff);
+
+        long afterId = shardRouter.onShard(shard, this::readCheckpoint);
+        while (true) {
+            long rangeStart = afterId;
+            Long rangeEnd = shardRouter.onShard(shard,
+                    () -> transactionTemplate.execute(status -> archiveRange(rangeStart, upperId, cutoffTimestamp)));
+            if (rangeEnd == null) {
+                // Fin du parcours : le prochain archivage repart du plus ancien todo restant, pour traiter
+                // les todos complétés depuis ce passage.
+                shardRouter.onShard(shard, () -> saveCheckpoint(lowWaterMark(upperId)));
+                return;
+            }
+            afterId = rangeEnd;
+            Thread.sleep(batchPauseMillis);
+        }
+    }
+
+    // Archive les todos de la plage suivant "afterId" et renvoie le dernier identifiant de la plage
+    // (null s'il ne reste plus de todos à parcourir). Exécutée dans une transaction.
+    private Long archiveRange(long afterId, long upperId, Timestamp cutoff) {
+        Long rangeEnd = jdbcTemplate.queryForObject(SELECT_RANGE_END_SQL, Long.class, afterId, upperId, batchSize);
+        if (rangeEnd == null) {
+            return null;
+        }
+
+        // Verrouille les todos à archiver, pour qu'ils ne soient pas modifiés entre la copie et la suppression.
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_SQL, Long.class, afterId, rangeEnd, cutoff);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update(COPY_SQL, afterId, rangeEnd, cutoff);
+            jdbcTemplate.update(DELETE_SQL, afterId, rangeEnd, cutoff);
+
+            // Les todos archivés sont retirés des caches (de cette instance et des autres) après le commit.
+            AfterCommit.run(() -> {
+                ids.forEach(todoCache::evict);
+                archivedInRun.addAndGet(ids.size());
+                archivedTotal.addAndGet(ids.size());
+            });
+            invalidationBus.publish(InvalidationEvent.Region.TODO, ids);
+
+            // Les todos archivés sont tous complétés.
+            todoStatsService.recordChange(-ids.size(), -ids.size());
+        }
+
+        saveCheckpoint(rangeEnd);
+        return rangeEnd;
+    }
+
+    private long readCheckpoint() {
+        List<Long> lastIds = jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, Long.class, JOB);
+        return lastIds.isEmpty() ? 0 : lastIds.get(0);
+    }
+
+    // Tous les todos d'identifiant inférieur ou égal à la valeur renvoyée ont été archivés (ou n'existent pas).
+    // Elle ne dépasse pas la borne du passage : les todos créés pendant l'archivage ont des identifiants supérieurs.
+    private long lowWaterMark(long upperId) {
+        Long minId = jdbcTemplate.queryForObject(SELECT_LOW_WATER_MARK_SQL, Long.class);
+        return minId == null ? upperId - 1 : Math.min(minId, upperId) - 1;
+    }
+
+    private Void saveCheckpoint(long lastId) {
+        if (jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, lastId, JOB) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_CHECKPOINT_SQL, JOB, lastId);
+            } catch (DuplicateKeyException e) {
+                // Insertion simultanée par une autre instance.
+                jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, lastId, JOB);
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,14 +1,29 @@
 package net.javaguides.todo.service.impl;
 
+import jakarta.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
+import net.javaguides.todo.audit.AuditAction;
+import net.javaguides.todo.audit.AuditLog;
+import net.javaguides.todo.cache.AfterCommit;
+import net.javaguides.todo.cache.InvalidationBus;
+import net.javaguides.todo.cache.InvalidationEvent;
+import net.javaguides.todo.cache.TodoCache;
 import net.javaguides.todo.dto.TodoDto;
 import net.javaguides.todo.entity.Todo;
 import net.javaguides.todo.exception.ResourceNotFoundException;
 import net.javaguides.todo.repository.TodoRepository;
 import net.javaguides.todo.service.TodoService;
+import net.javaguides.todo.service.TodoStatsService;
+import net.javaguides.todo.sharding.ShardRouter;
 import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,119 +38,266 @@ public class TodoServiceImpl implements TodoService {
     // Injection de dépendance du mapper ModelMapper.
     private ModelMapper modelMapper;
 
+    // Injection de dépendance du ShardRouter, qui sélectionne la shard contenant chaque todo.
+    private ShardRouter shardRouter;
+
+    // Injection de dépendance du cache des todos.
+    private TodoCache todoCache;
+
+    // Injection de dépendance du bus d'invalidation, qui propage les modifications aux autres instances.
+    private InvalidationBus invalidationBus;
+
+    // Injection de dépendance du service de statistiques, mis à jour par chaque écriture.
+    private TodoStatsService todoStatsService;
+
+    // Injection de dépendance du journal d'audit, qui enregistre chaque modification après le commit.
+    private AuditLog auditLog;
+
+    // Injection de dépendance du TransactionTemplate (lecture-écriture), utilisé pour charger un todo absent du cache.
+    private TransactionTemplate transactionTemplate;
+
+    // Les todos modifiés par une autre instance sont retirés du cache local.
+    @PostConstruct
+    public void subscribeToInvalidations() {
+        invalidationBus.subscribe(InvalidationEvent.Region.TODO, id -> {
+            if (id == null) {
+                todoCache.evictAll();
+            } else {
+                todoCache.evict(id);
+            }
+        });
+    }
+
     // Méthode pour ajouter un nouveau Todo en utilisant les informations fournies dans TodoDto.
     @Override
+    @Transactional
     public TodoDto addTodo(TodoDto todoDto) {
 
         // Convertit l'objet TodoDto en entité JPA Todo à l'aide de ModelMapper.
         Todo todo = modelMapper.map(todoDto, Todo.class);
 
-        // Enregistre l'entité Todo dans la base de données en utilisant le TodoRepository.
-        Todo savedTodo = todoRepository.save(todo);
+        // L'identifiant est toujours généré par l'application, jamais fourni par le client.
+        todo.setId(null);
 
-        // Convertit l'entité Todo en objet TodoDto à l'aide de ModelMapper.
-        TodoDto savedTodoDto = modelMapper.map(savedTodo, TodoDto.class);
+        // Le propriétaire du todo est l'utilisateur authentifié ; il détermine la shard du todo,
+        // qui est encodée dans l'identifiant généré.
+        todo.setOwner(currentUsername());
+        int shard = shardRouter.shardForOwner(todo.getOwner());
+        todo.setShard(shard);
 
-        // Renvoie l'objet TodoDto sauvegardé.
-        return savedTodoDto;
+        // Enregistre l'entité Todo dans la base de données (shard du propriétaire) en utilisant le TodoRepository.
+        // L'insertion est exécutée immédiatement pour que la connexion soit obtenue sur la bonne shard.
+        Todo savedTodo = shardRouter.onShard(shard, () -> todoRepository.saveAndFlush(todo));
+        todoStatsService.recordChange(1, savedTodo.isCompleted() ? 1 : 0);
+        auditLog.record(AuditAction.TODO_CREATE, todo.getOwner(), String.valueOf(savedTodo.getId()));
+
+        // Convertit l'entité Todo en objet TodoDto, l'ajoute au cache après le commit et renvoie l'objet TodoDto sauvegardé.
+        // Un nouveau todo ne peut pas être dans le cache des autres instances : aucune invalidation n'est publiée.
+        return cacheAfterCommit(toDto(savedTodo));
+    }
+
+    // Méthode pour ajouter plusieurs Todos en une seule transaction (insertions regroupées en batch JDBC).
+    // Tous les todos appartiennent à l'utilisateur authentifié : ils sont donc enregistrés sur la même shard.
+    @Override
+    @Transactional
+    public List<TodoDto> addTodos(List<TodoDto> todoDtos) {
+        String owner = currentUsername();
+        int shard = shardRouter.shardForOwner(owner);
+
+        // Convertit chaque TodoDto en entité Todo, avec un identifiant généré par l'application.
+        List<Todo> todos = todoDtos.stream().map(todoDto -> {
+            Todo todo = modelMapper.map(todoDto, Todo.class);
+            todo.setId(null);
+            todo.setOwner(owner);
+            todo.setShard(shard);
+            return todo;
+        }).collect(Collectors.toList());
+
+        // Enregistre les todos sur la shard du propriétaire ; flush exécute les insertions sur cette shard.
+        List<Todo> savedTodos = shardRouter.onShard(shard, () -> {
+            List<Todo> saved = todoRepository.saveAll(todos);
+            todoRepository.flush();
+            return saved;
+        });
+        todoStatsService.recordChange(savedTodos.size(), savedTodos.stream().filter(Todo::isCompleted).count());
+
+        return savedTodos.stream().map(savedTodo -> {
+            auditLog.record(AuditAction.TODO_CREATE, owner, String.valueOf(savedTodo.getId()));
+            return cacheAfterCommit(toDto(savedTodo));
+        }).collect(Collectors.toList());
     }
 
     // Méthode pour obtenir un Todo à partir de son identifiant (id).
+    // Le todo est d'abord recherché dans le cache ; s'il est absent, il est chargé depuis la base de données.
+    // Aucune transaction n'est ouverte ici pour qu'une lecture dans le cache ne coûte rien :
+    // la transaction n'est ouverte qu'en cas d'absence du todo dans le cache (voir loadTodo).
     @Override
     public TodoDto getTodo(Long id) {
+        return todoCache.get(id, this::loadTodo);
+    }
+
+    // Méthode privée pour charger un Todo depuis la base de données à partir de son identifiant (id).
+    private TodoDto loadTodo(Long id) {
 
         // Recherche le Todo dans la base de données à partir de son identifiant.
+        // La transaction est en lecture-écriture pour que la lecture soit faite sur la base principale :
+        // le todo lu reste en cache jusqu'à son expiration, il ne doit donc pas provenir d'un réplica en retard.
         // S'il n'existe pas, lève une exception ResourceNotFoundException avec un message spécifique.
-        Todo todo = todoRepository.findById(id)
+        Todo todo = shardRouter.onShard(shardRouter.shardOf(id),
+                        () -> transactionTemplate.execute(status -> todoRepository.findById(id)))
                 .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id:" + id));
 
         // Convertit l'entité Todo en objet TodoDto à l'aide de ModelMapper.
-        return modelMapper.map(todo, TodoDto.class);
+        return toDto(todo);
     }
 
     // Méthode pour obtenir tous les Todos disponibles dans la base de données.
     @Override
+    @Transactional(readOnly = true)
     public List<TodoDto> getAllTodos() {
 
-        // Récupère tous les Todos à partir de la base de données en utilisant le TodoRepository.
-        List<Todo> todos = todoRepository.findAll();
+        // Récupère tous les Todos de chaque shard (en parallèle) en utilisant le TodoRepository,
+        // puis convertit chaque entité Todo en objet TodoDto à l'aide de ModelMapper.
+        return shardRouter.onAllShards(shard -> todoRepository.findAll().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList()));
+    }
 
-        // Convertit chaque entité Todo en objet TodoDto à l'aide de ModelMapper,
-        // puis collecte les objets TodoDto dans une liste et la renvoie.
-        return todos.stream().map((todo) -> modelMapper.map(todo, TodoDto.class))
+    // Méthode pour obtenir une page de Todos triés par identifiant, à partir d'un curseur (pagination par clé).
+    // Les identifiants croissent avec la date de création : chaque shard renvoie au plus "limit" todos
+    // après le curseur, puis les résultats sont fusionnés.
+    @Override
+    @Transactional(readOnly = true)
+    public List<TodoDto> getTodos(Long afterId, int limit) {
+        long after = afterId == null ? 0 : afterId;
+
+        List<TodoDto> todos = shardRouter.onAllShards(shard -> todoRepository
+                .findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(limit)).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList()));
+
+        return todos.stream()
+                .sorted(Comparator.comparing(TodoDto::getId))
+                .limit(limit)
                 .collect(Collectors.toList());
     }
 
     // Méthode pour mettre à jour un Todo à partir des informations fournies dans TodoDto et de son identifiant (id).
     @Override
+    @Transactional
     public TodoDto updateTodo(TodoDto todoDto, Long id) {
-
-        // Recherche le Todo dans la base de données à partir de son identifiant.
-        // S'il n'existe pas, lève une exception ResourceNotFoundException avec un message spécifique.
-        Todo todo = todoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id : " + id));
-
-        // Met à jour les propriétés du Todo avec les informations fournies dans TodoDto.
-        todo.setTitle(todoDto.getTitle());
-        todo.setDescription(todoDto.getDescription());
-        todo.setCompleted(todoDto.isCompleted());
-
-        // Enregistre les modifications dans la base de données en utilisant le TodoRepository.
-        Todo updatedTodo = todoRepository.save(todo);
-
-        // Convertit l'entité Todo mise à jour en objet TodoDto à l'aide de ModelMapper et la renvoie.
-        return modelMapper.map(updatedTodo, TodoDto.class);
+        int shard = shardRouter.shardOf(id);
+        return shardRouter.onShard(shard, () -> {
+
+            // Recherche le Todo dans la base de données à partir de son identifiant.
+            // S'il n'existe pas, lève une exception ResourceNotFoundException avec un message spécifique.
+            Todo todo = todoRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id : " + id));
+
+            // Met à jour les propriétés du Todo avec les informations fournies dans TodoDto.
+            recordCompletedChange(todo.isCompleted(), todoDto.isCompleted());
+            todo.setTitle(todoDto.getTitle());
+            todo.setDescription(todoDto.getDescription());
+            todo.setCompleted(todoDto.isCompleted());
+
+            // Enregistre les modifications dans la base de données en utilisant le TodoRepository.
+            Todo updatedTodo = todoRepository.save(todo);
+            auditLog.record(AuditAction.TODO_UPDATE, currentUsername(), String.valueOf(id));
+
+            // Convertit l'entité Todo mise à jour en objet TodoDto à l'aide de ModelMapper,
+            // met à jour le cache après le commit (sur cette instance et sur les autres) et la renvoie.
+            return replaceInCacheAfterCommit(toDto(updatedTodo));
+        });
     }
 
     // Méthode pour supprimer un Todo à partir de son identifiant (id).
     @Override
+    @Transactional
     public void deleteTodo(Long id) {
-
-        // Recherche le Todo dans la base de données à partir de son identifiant.
-        // S'il n'existe pas, lève une exception ResourceNotFoundException avec un message spécifique.
-        Todo todo = todoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id : " + id));
-
-        // Supprime le Todo de la base de données en utilisant le TodoRepository.
-        todoRepository.deleteById(id);
+        shardRouter.onShard(shardRouter.shardOf(id), () -> {
+
+            // Recherche le Todo dans la base de données à partir de son identifiant.
+            // S'il n'existe pas, lève une exception ResourceNotFoundException avec un message spécifique.
+            Todo todo = todoRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id : " + id));
+
+            // Supprime le Todo de la base de données en utilisant le TodoRepository.
+            todoRepository.delete(todo);
+            todoStatsService.recordChange(-1, todo.isCompleted() ? -1 : 0);
+            auditLog.record(AuditAction.TODO_DELETE, currentUsername(), String.valueOf(id));
+
+            // Retire le Todo du cache après le commit, sur cette instance et sur les autres.
+            AfterCommit.run(() -> todoCache.evict(id));
+            invalidationBus.publish(InvalidationEvent.Region.TODO, id);
+            return null;
+        });
     }
 
     // Méthode pour marquer un Todo comme complété à partir de son identifiant (id).
     @Override
+    @Transactional
     public TodoDto completeTodo(Long id) {
-
-        // Recherche le Todo dans la base de données à partir de son identifiant.
-        // S'il n'existe pas, lève une exception ResourceNotFoundException avec un message spécifique.
-        Todo todo = todoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id : " + id));
-
-        // Marque le Todo comme complété en mettant à jour la propriété "completed" à TRUE.
-        todo.setCompleted(Boolean.TRUE);
-
-        // Enregistre les modifications dans la base de données en utilisant le TodoRepository.
-        Todo updatedTodo = todoRepository.save(todo);
-
-        // Convertit l'entité Todo mise à jour en objet TodoDto à l'aide de ModelMapper et la renvoie.
-        return modelMapper.map(updatedTodo, TodoDto.class);
+        return updateCompleted(id, Boolean.TRUE);
     }
 
     // Méthode pour marquer un Todo comme non complété à partir de son identifiant (id).
     @Override
+    @Transactional
     public TodoDto inCompleteTodo(Long id) {
+        return updateCompleted(id, Boolean.FALSE);
+    }
 
-        // Recherche le Todo dans la base de données à partir de son identifiant.
-        // S'il n'existe pas, lève une exception ResourceNotFoundException avec un message spécifique.
-        Todo todo = todoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id : " + id));
+    // Méthode privée pour mettre à jour la propriété "completed" d'un Todo à partir de son identifiant (id).
+    private TodoDto updateCompleted(Long id, boolean completed) {
+        int shard = shardRouter.shardOf(id);
+        return shardRouter.onShard(shard, () -> {
+
+            // Recherche le Todo dans la base de données à partir de son identifiant.
+            // S'il n'existe pas, lève une exception ResourceNotFoundException avec un message spécifique.
+            Todo todo = todoRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Todo not found with id : " + id));
+
+            // Met à jour la propriété "completed" du Todo.
+            recordCompletedChange(todo.isCompleted(), completed);
+            todo.setCompleted(completed);
+
+            // Enregistre les modifications dans la base de données en utilisant le TodoRepository.
+            Todo updatedTodo = todoRepository.save(todo);
+            auditLog.record(completed ? AuditAction.TODO_COMPLETE : AuditAction.TODO_INCOMPLETE,
+                    currentUsername(), String.valueOf(id));
+
+            // Convertit l'entité Todo mise à jour en objet TodoDto à l'aide de ModelMapper,
+            // met à jour le cache après le commit (sur cette instance et sur les autres) et la renvoie.
+            return replaceInCacheAfterCommit(toDto(updatedTodo));
+        });
+    }
 
-        // Marque le Todo comme non complété en mettant à jour la propriété "completed" à FALSE.
-        todo.setCompleted(Boolean.FALSE);
+    // Méthode privée pour mettre à jour les statistiques lorsque la propriété "completed" d'un Todo change.
+    private void recordCompletedChange(boolean wasCompleted, boolean completed) {
+        todoStatsService.recordChange(0, (completed ? 1 : 0) - (wasCompleted ? 1 : 0));
+    }
 
-        // Enregistre les modifications dans la base de données en utilisant le TodoRepository.
-        Todo updatedTodo = todoRepository.save(todo);
+    // Méthode privée pour mettre le todo en cache une fois la transaction validée.
+    private TodoDto cacheAfterCommit(TodoDto todoDto) {
+        AfterCommit.run(() -> todoCache.put(todoDto));
+        return todoDto;
+    }
 
-        // Convertit l'entité Todo mise à jour en objet TodoDto à l'aide de ModelMapper et la renvoie.
-        return modelMapper.map(updatedTodo, TodoDto.class);
+    // Méthode privée pour mettre à jour le todo en cache une fois la transaction validée.
+    // Les autres instances retirent leur copie, devenue obsolète.
+    private TodoDto replaceInCacheAfterCommit(TodoDto todoDto) {
+        invalidationBus.publish(InvalidationEvent.Region.TODO, todoDto.getId());
+        return cacheAfterCommit(todoDto);
     }
-}
 
+    // Méthode privée pour convertir une entité Todo en TodoDto à l'aide de ModelMapper.
+    private TodoDto toDto(Todo todo) {
+        return modelMapper.map(todo, TodoDto.class);
+    }
+
+    // Méthode privée pour obtenir le nom de l'utilisateur authentifié.
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,80 @@
+package net.javaguides.todo.service.impl;
+
+import net.javaguides.todo.cache.AfterCommit;
+import net.javaguides.todo.dto.TodoStatsDto;
+import net.javaguides.todo.repository.TodoRepository;
+import net.javaguides.todo.service.TodoStatsService;
+import net.javaguides.todo.sharding.ShardRouter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+// Statistiques des todos servies depuis la mémoire, sans requête :
+// valeurs de base issues d'un COUNT sur toutes les shards, plus les variations enregistrées depuis par les écritures
+// de cette instance (LongAdder : pas de contention entre les threads qui écrivent).
+// Le COUNT est refait toutes les "app.stats.reconcile-interval-milliseconds" millisecondes, ce qui corrige
+// les écritures faites par les autres instances et les éventuels écarts.
+@Service
+public class TodoStatsServiceImpl implements TodoStatsService {
+
+    private final TodoRepository todoRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder totalDelta = new LongAdder();
+    private final LongAdder completedDelta = new LongAdder();
+    private volatile long baseTotal;
+    private volatile long baseCompleted;
+    private volatile Instant reconciledAt;
+
+    public TodoStatsServiceImpl(TodoRepository todoRepository, ShardRouter shardRouter,
+                                TransactionTemplate transactionTemplate) {
+        this.todoRepository = todoRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public TodoStatsDto getStats() {
+        long total = Math.max(0, baseTotal + totalDelta.sum());
+        long completed = Math.min(total, Math.max(0, baseCompleted + completedDelta.sum()));
+        return new TodoStatsDto(total, completed, total - completed, reconciledAt);
+    }
+
+    @Override
+    public void recordChange(long total, long completed) {
+        if (total == 0 && completed == 0) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            totalDelta.add(total);
+            completedDelta.add(completed);
+        });
+    }
+
+    // Recalcule les compteurs avec un COUNT sur chaque shard (au démarrage, puis périodiquement).
+    // Les variations sont remises à zéro avant le COUNT : une écriture validée pendant le COUNT peut être
+    // comptée deux fois jusqu'au recalcul suivant, jamais perdue.
+    // Le COUNT est fait sur la base principale de chaque shard (transaction en lecture-écriture) : sur un réplica
+    // en retard, les écritures validées avant la remise à zéro des variations seraient perdues.
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-milliseconds}")
+    public void reconcile() {
+        totalDelta.reset();
+        completedDelta.reset();
+
+        long total = 0;
+        long completed = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long[] count = shardRouter.onShard(shard, () -> transactionTemplate.execute(status ->
+                    new long[]{todoRepository.count(), todoRepository.countByCompletedTrue()}));
+            total += count[0];
+            completed += count[1];
+        }
+        baseTotal = total;
+        baseCompleted = completed;
+        reconciledAt = Instant.now();
+    }
+}
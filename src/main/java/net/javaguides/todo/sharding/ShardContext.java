@@ -0,0 +1,24 @@
+package net.javaguides.todo.sharding;
+
+// Cette class conserve, pour le thread courant, le numéro de la shard sur laquelle les requêtes doivent être exécutées.
+// Elle est lue par ShardRoutingDataSource au moment où une connexion est demandée.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    // Renvoie la shard courante, ou null si aucune shard n'est sélectionnée (base par défaut).
+    public static Integer get() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+    }
+}
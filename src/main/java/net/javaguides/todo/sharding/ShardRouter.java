@@ -0,0 +1,146 @@
+package net.javaguides.todo.sharding;
+
+import jakarta.annotation.PreDestroy;
+import net.javaguides.todo.exception.TodoAPIException;
+import net.javaguides.todo.id.SnowflakeIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// Cette class répartit les todos entre les shards.
+// - Un todo est placé sur la shard calculée à partir du hachage de son propriétaire.
+// - L'identifiant d'un todo (généré par SnowflakeIdGenerator) contient le numéro de sa shard,
+//   ce qui permet de retrouver la shard à partir de l'identifiant seul. Les todos créés avant le générateur
+//   (identifiants auto-incrémentés) sont sur la shard 0.
+// - Les listes sont obtenues en interrogeant toutes les shards en parallèle (scatter-gather).
+// Sans sharding (une seule shard), tout s'exécute sur la base principale.
+@Component
+public class ShardRouter {
+
+    private final int shardCount;
+
+    // Threads utilisés pour interroger les shards en parallèle (null sans sharding).
+    private final ExecutorService executor;
+
+    // Transaction en lecture seule ouverte dans chaque thread lors d'un scatter-gather.
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Délai maximum d'attente des réponses des shards.
+    private final long queryTimeoutMillis;
+
+    public ShardRouter(@Value("${app.sharding.enabled}") boolean enabled,
+                       @Value("${app.sharding.shard-urls:}") String[] shardUrls,
+                       @Value("${app.sharding.query-timeout-milliseconds}") long queryTimeoutMillis,
+                       PlatformTransactionManager transactionManager) {
+        this.shardCount = enabled ? shardUrls.length + 1 : 1;
+        if (shardCount > SnowflakeIdGenerator.MAX_SHARD + 1) {
+            throw new IllegalStateException("At most " + (SnowflakeIdGenerator.MAX_SHARD + 1) + " shards are supported");
+        }
+        this.queryTimeoutMillis = queryTimeoutMillis;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        if (shardCount > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(shardCount, runnable -> {
+                Thread thread = new Thread(runnable, "shard-query-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    // Méthode pour obtenir la shard d'un propriétaire (hachage du nom d'utilisateur).
+    public int shardForOwner(String owner) {
+        if (!isSharded() || owner == null) {
+            return 0;
+        }
+        return Math.floorMod(owner.hashCode(), shardCount);
+    }
+
+    // Méthode pour obtenir la shard à partir de l'identifiant d'un todo.
+    public int shardOf(long id) {
+        return isSharded() ? SnowflakeIdGenerator.shardOf(id) : 0;
+    }
+
+    // Méthode pour exécuter un traitement sur une shard donnée, dans le thread courant.
+    // La connexion est obtenue à la demande, lors de la première requête SQL, puis conservée jusqu'à la fin
+    // de la transaction : la transaction éventuelle ne doit donc pas avoir exécuté de requête avant l'appel,
+    // et le traitement doit exécuter au moins une requête (pas seulement des modifications différées au commit).
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.get();
+        ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    // Méthode pour exécuter une requête sur toutes les shards en parallèle et concaténer les résultats.
+    // Chaque shard est interrogée dans son propre thread et sa propre transaction en lecture seule.
+    public <T> List<T> onAllShards(IntFunction<List<T>> query) {
+        if (!isSharded()) {
+            return query.apply(0);
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> onShard(target, () -> readOnlyTransaction.execute(status -> query.apply(target))),
+                    executor));
+        }
+
+        List<T> results = new ArrayList<>();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queryTimeoutMillis);
+            for (CompletableFuture<List<T>> future : futures) {
+                results.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TodoAPIException(HttpStatus.SERVICE_UNAVAILABLE, "Shard query interrupted!");
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new TodoAPIException(HttpStatus.SERVICE_UNAVAILABLE, "Shard query timed out!");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
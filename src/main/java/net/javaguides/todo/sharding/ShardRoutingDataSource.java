@@ -0,0 +1,28 @@
+package net.javaguides.todo.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Cette class choisit la base de données (shard) à utiliser en fonction de ShardContext.
+// La shard 0 est la base principale de l'application : elle contient aussi les utilisateurs et les rôles.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(DataSource defaultDataSource, List<DataSource> additionalShards) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(0, defaultDataSource);
+        for (int i = 0; i < additionalShards.size(); i++) {
+            targets.put(i + 1, additionalShards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(defaultDataSource);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.get();
+    }
+}
@@ -0,0 +1,89 @@
+package net.javaguides.todo.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Configuration activée avec "app.sharding.enabled=true".
+// La DataSource principale de l'application devient la shard 0 et chaque URL de "app.sharding.shard-urls"
+// ajoute une shard supplémentaire. La DataSource utilisée par JPA route alors chaque connexion vers la shard
+// sélectionnée dans ShardContext.
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // BeanPostProcessor qui enveloppe la DataSource "dataSource" (celle de Spring Boot ou celle du routage
+    // lecture/écriture) dans une ShardRoutingDataSource. Les pools des shards supplémentaires ne sont pas
+    // déclarés comme beans pour ne pas remplacer la DataSource auto-configurée par Spring Boot :
+    // ils sont donc fermés par ce BeanPostProcessor, lors de la destruction de la DataSource "dataSource".
+    @Bean
+    public static BeanPostProcessor shardingDataSourcePostProcessor(Environment environment,
+                                                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        return new DestructionAwareBeanPostProcessor() {
+
+            // Pools de connexions des shards supplémentaires.
+            private final List<HikariDataSource> shardPools = new ArrayList<>();
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource defaultDataSource)) {
+                    return bean;
+                }
+
+                String[] urls = environment.getProperty("app.sharding.shard-urls", String[].class, new String[0]);
+                List<DataSource> shards = new ArrayList<>();
+                for (int i = 0; i < urls.length; i++) {
+                    HikariDataSource shard = new HikariDataSource();
+                    shard.setPoolName("shard-" + (i + 1));
+                    shard.setJdbcUrl(urls[i].trim());
+                    shard.setUsername(environment.getProperty("app.sharding.username", environment.getProperty("spring.datasource.username")));
+                    shard.setPassword(environment.getProperty("app.sharding.password", environment.getProperty("spring.datasource.password")));
+                    shard.setMetricRegistry(meterRegistry.getIfAvailable());
+                    shards.add(shard);
+                    shardPools.add(shard);
+                }
+
+                ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(defaultDataSource, shards);
+                routingDataSource.afterPropertiesSet();
+                return new LazyConnectionDataSourceProxy(routingDataSource);
+            }
+
+            @Override
+            public void postProcessBeforeDestruction(Object bean, String beanName) {
+                if ("dataSource".equals(beanName)) {
+                    shardPools.forEach(HikariDataSource::close);
+                    shardPools.clear();
+                }
+            }
+        };
+    }
+
+    // Stratégie de migration Flyway : les migrations sont appliquées sur chaque shard, l'une après l'autre.
+    // La DataSource de Flyway est la DataSource de routage, la shard est donc sélectionnée avec ShardContext.
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(Environment environment) {
+        return flyway -> {
+            int shardCount = environment.getProperty("app.sharding.shard-urls", String[].class, new String[0]).length + 1;
+            for (int shard = 0; shard < shardCount; shard++) {
+                ShardContext.set(shard);
+                try {
+                    flyway.migrate();
+                } finally {
+                    ShardContext.set(null);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+-- Schéma initial, identique à celui créé jusqu'ici par Hibernate (ddl-auto=update) : mêmes colonnes, mêmes types
+-- et mêmes noms de contraintes. Sur une base existante, cette version est marquée comme appliquée
+-- (spring.flyway.baseline-on-migrate) : toute modification du schéma doit donc être faite dans une version suivante.
+
+CREATE TABLE IF NOT EXISTS roles (
+    id   BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS todos (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    completed   BIT          NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    title       VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    email    VARCHAR(255) NOT NULL,
+    name     VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS users_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id)
+) ENGINE = InnoDB;
+
+ALTER TABLE users ADD CONSTRAINT UK_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email);
+ALTER TABLE users ADD CONSTRAINT UK_r43af9ap4edm43mmtq01oddj6 UNIQUE (username);
+ALTER TABLE users_roles ADD CONSTRAINT FKj6m8fwv7oqv74fcehir1a9ffy FOREIGN KEY (role_id) REFERENCES roles (id);
+ALTER TABLE users_roles ADD CONSTRAINT FK2o0jvgh89lemvvo17cbqvdxaa FOREIGN KEY (user_id) REFERENCES users (id);
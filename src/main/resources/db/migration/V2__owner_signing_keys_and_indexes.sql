@@ -0,0 +1,34 @@
+-- Propriétaire d'un todo (nom de l'utilisateur qui l'a créé) : il détermine la shard du todo.
+ALTER TABLE todos ADD COLUMN owner VARCHAR(255);
+
+-- Clés RSA de signature des jetons JWT, partagées entre les instances (voir JwtKeyManager).
+CREATE TABLE IF NOT EXISTS jwt_signing_keys (
+    kid         VARCHAR(32) NOT NULL,
+    private_key LONGTEXT    NOT NULL,
+    public_key  LONGTEXT    NOT NULL,
+    created_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (kid)
+) ENGINE = InnoDB;
+
+-- Les contraintes d'unicité générées par Hibernate reçoivent un nom explicite, utilisé par AuthServiceImpl pour
+-- distinguer un nom d'utilisateur d'un e-mail déjà utilisé. Elles servent aussi d'index à findByUsername
+-- et findByUsernameOrEmail (fusion des deux index).
+ALTER TABLE users RENAME INDEX UK_r43af9ap4edm43mmtq01oddj6 TO uk_users_username;
+ALTER TABLE users RENAME INDEX UK_6dotkott2kjsp8vw4d0m25fb7 TO uk_users_email;
+
+-- Un nom de rôle est unique : findByName("ROLE_USER") utilise cet index.
+ALTER TABLE roles ADD CONSTRAINT uk_roles_name UNIQUE (name);
+
+-- Dates de création et de modification des todos (renseignées par Hibernate, valeur par défaut pour les lignes existantes).
+ALTER TABLE todos
+    ADD COLUMN created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+-- Todos d'un propriétaire, dans l'ordre des identifiants (pagination par clé).
+CREATE INDEX idx_todos_owner ON todos (owner, id);
+
+-- Todos complétés / non complétés, du plus ancien au plus récent (archivage des todos complétés).
+CREATE INDEX idx_todos_completed_updated_at ON todos (completed, updated_at);
+
+-- Todos par date de création.
+CREATE INDEX idx_todos_created_at ON todos (created_at);
@@ -0,0 +1,20 @@
+-- Todos complétés archivés par TodoArchiveService (mêmes colonnes que "todos").
+CREATE TABLE IF NOT EXISTS todos_archive (
+    id          BIGINT       NOT NULL,
+    title       VARCHAR(255) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    completed   BIT          NOT NULL,
+    owner       VARCHAR(255),
+    created_at  DATETIME(6)  NOT NULL,
+    updated_at  DATETIME(6)  NOT NULL,
+    archived_at DATETIME(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Point de reprise de l'archivage : dernier identifiant traité, pour reprendre après un redémarrage.
+CREATE TABLE IF NOT EXISTS todos_archive_checkpoint (
+    job        VARCHAR(64) NOT NULL,
+    last_id    BIGINT      NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (job)
+) ENGINE = InnoDB;
@@ -0,0 +1,13 @@
+-- Journal d'audit écrit par AuditLog (connexions, inscriptions, modifications des todos).
+CREATE TABLE IF NOT EXISTS audit_log (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    occurred_at DATETIME(6)  NOT NULL,
+    principal   VARCHAR(255),
+    action      VARCHAR(32)  NOT NULL,
+    target      VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+-- Consultation du journal par période et par utilisateur.
+CREATE INDEX idx_audit_log_occurred_at ON audit_log (occurred_at);
+CREATE INDEX idx_audit_log_principal ON audit_log (principal, occurred_at);
@@ -0,0 +1,11 @@
+-- Jetons révoqués (rotation des jetons de rafraîchissement, déconnexion), partagés entre les instances.
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti        VARCHAR(32) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    revoked_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (jti)
+) ENGINE = InnoDB;
+
+-- Purge des jetons expirés et chargement des révocations récentes.
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
@@ -0,0 +1,4 @@
+-- Le propriétaire des todos est toujours le nom d'utilisateur : les todos créés après une connexion par email
+-- portaient l'email comme propriétaire.
+UPDATE todos t JOIN users u ON t.owner = u.email SET t.owner = u.username;
+UPDATE todos_archive t JOIN users u ON t.owner = u.email SET t.owner = u.username;
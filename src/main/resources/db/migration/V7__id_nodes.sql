@@ -0,0 +1,8 @@
+-- Numéros de noeud (app.id.node-id) utilisés par les instances en cours d'exécution.
+-- Une instance ne démarre pas si son numéro de noeud est déjà utilisé : ses identifiants entreraient en collision.
+CREATE TABLE IF NOT EXISTS id_nodes (
+    node_id      INT         NOT NULL,
+    process_id   VARCHAR(36) NOT NULL,
+    heartbeat_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (node_id)
+) ENGINE = InnoDB;
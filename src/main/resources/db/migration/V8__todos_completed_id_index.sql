@@ -0,0 +1,3 @@
+-- Todos complétés dans l'ordre des identifiants : l'archivage parcourt les plages d'identifiants
+-- sans lire les todos non complétés.
+CREATE INDEX idx_todos_completed_id ON todos (completed, id);
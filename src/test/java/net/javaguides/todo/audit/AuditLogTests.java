@@ -0,0 +1,154 @@
+package net.javaguides.todo.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTests {
+
+	private final DriverManagerDataSource dataSource =
+			new DriverManagerDataSource("jdbc:h2:mem:audit;DB_CLOSE_DELAY=-1", "sa", "");
+
+	private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final List<AuditLog> auditLogs = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		// Même table que la migration V4, en syntaxe H2.
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_log (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "occurred_at TIMESTAMP(6) NOT NULL, principal VARCHAR(255), action VARCHAR(32) NOT NULL, target VARCHAR(255))");
+		jdbcTemplate.execute("DELETE FROM audit_log");
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		for (AuditLog auditLog : auditLogs) {
+			auditLog.stop();
+		}
+		jdbcTemplate.execute("ALTER TABLE audit_log DROP CONSTRAINT IF EXISTS ck_audit_log_target");
+	}
+
+	@Test
+	void pendingEventsAreWrittenOnStop() throws InterruptedException {
+		// Intervalle d'écriture très long : seul l'arrêt peut écrire les évènements.
+		AuditLog auditLog = auditLog(100, AuditLog.OverflowPolicy.DROP, 0, 3_600_000);
+		auditLog.start();
+		for (int i = 0; i < 3; i++) {
+			auditLog.record(AuditAction.TODO_CREATE, "ramesh", String.valueOf(i));
+		}
+
+		auditLog.stop();
+
+		assertThat(rowCount()).isEqualTo(3);
+		assertThat(counter("audit.events.written")).isEqualTo(3);
+	}
+
+	@Test
+	void dropPolicyCountsDroppedEvents() throws InterruptedException {
+		AuditLog auditLog = auditLog(2, AuditLog.OverflowPolicy.DROP, 0, 10);
+		for (int i = 0; i < 5; i++) {
+			auditLog.record(AuditAction.LOGIN, "ramesh", null);
+		}
+
+		assertThat(counter("audit.events.dropped")).isEqualTo(3);
+		assertThat(meterRegistry.get("audit.queue.depth").gauge().value()).isEqualTo(2);
+
+		auditLog.start();
+		auditLog.stop();
+		assertThat(rowCount()).isEqualTo(2);
+	}
+
+	@Test
+	void blockPolicyWaitsThenDrops() {
+		AuditLog auditLog = auditLog(1, AuditLog.OverflowPolicy.BLOCK, 50, 10);
+		auditLog.record(AuditAction.LOGIN, "ramesh", null);
+
+		long start = System.nanoTime();
+		auditLog.record(AuditAction.LOGIN, "ramesh", null);
+
+		assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+		assertThat(counter("audit.events.dropped")).isEqualTo(1);
+	}
+
+	@Test
+	void blockPolicyWaitsForTheWriter() throws InterruptedException {
+		AuditLog auditLog = auditLog(1, AuditLog.OverflowPolicy.BLOCK, 5_000, 1);
+		auditLog.start();
+		for (int i = 0; i < 20; i++) {
+			auditLog.record(AuditAction.TODO_UPDATE, "ramesh", String.valueOf(i));
+		}
+		auditLog.stop();
+
+		assertThat(counter("audit.events.dropped")).isZero();
+		assertThat(rowCount()).isEqualTo(20);
+	}
+
+	@Test
+	void overlongValuesAreTruncated() throws InterruptedException {
+		AuditLog auditLog = auditLog(100, AuditLog.OverflowPolicy.DROP, 0, 3_600_000);
+		auditLog.start();
+		auditLog.record(AuditAction.LOGIN_FAILED, "x".repeat(1000), null);
+		auditLog.record(AuditAction.LOGIN, "ramesh", "y".repeat(300));
+		auditLog.stop();
+
+		assertThat(rowCount()).isEqualTo(2);
+		assertThat(counter("audit.events.dropped")).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT MAX(LENGTH(principal)) FROM audit_log", Integer.class)).isEqualTo(255);
+		assertThat(jdbcTemplate.queryForObject("SELECT MAX(LENGTH(target)) FROM audit_log", Integer.class)).isEqualTo(255);
+	}
+
+	@Test
+	void truncationKeepsSurrogatePairs() {
+		String value = "x".repeat(AuditLog.MAX_COLUMN_LENGTH - 1) + "😀";
+
+		assertThat(AuditLog.truncate(value)).isEqualTo("x".repeat(AuditLog.MAX_COLUMN_LENGTH - 1));
+		assertThat(AuditLog.truncate("ramesh")).isEqualTo("ramesh");
+		assertThat(AuditLog.truncate(null)).isNull();
+	}
+
+	@Test
+	void failedBatchIsRetriedRowByRow() throws InterruptedException {
+		jdbcTemplate.execute("ALTER TABLE audit_log ADD CONSTRAINT ck_audit_log_target CHECK (target <> 'rejected')");
+		AuditLog auditLog = auditLog(100, AuditLog.OverflowPolicy.DROP, 0, 3_600_000);
+		auditLog.start();
+		auditLog.record(AuditAction.TODO_CREATE, "ramesh", "1");
+		auditLog.record(AuditAction.TODO_CREATE, "ramesh", "rejected");
+		auditLog.record(AuditAction.TODO_CREATE, "ramesh", "2");
+		auditLog.stop();
+
+		assertThat(jdbcTemplate.queryForList("SELECT target FROM audit_log ORDER BY id", String.class))
+				.containsExactly("1", "2");
+		assertThat(counter("audit.events.written")).isEqualTo(2);
+		assertThat(counter("audit.events.dropped")).isEqualTo(1);
+	}
+
+	private AuditLog auditLog(int capacity, AuditLog.OverflowPolicy overflowPolicy, long blockTimeoutMillis,
+							  long flushIntervalMillis) {
+		AuditLog auditLog = new AuditLog(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+				meterRegistry, true, capacity, overflowPolicy, blockTimeoutMillis, 200, flushIntervalMillis);
+		auditLogs.add(auditLog);
+		return auditLog;
+	}
+
+	private long rowCount() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_log", Long.class);
+	}
+
+	private double counter(String name) {
+		return meterRegistry.get(name).counter().count();
+	}
+}
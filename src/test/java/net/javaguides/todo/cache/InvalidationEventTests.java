@@ -0,0 +1,43 @@
+package net.javaguides.todo.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationEventTests {
+
+	private static final String ORIGIN = "3f2b8c1e-5d4a-4e7f-9a0b-1c2d3e4f5a6b";
+
+	@Test
+	void batchIsSplitIntoMessagesOfBoundedSize() {
+		List<Long> ids = LongStream.range(0, 500).map(i -> Long.MAX_VALUE - i).boxed().toList();
+
+		List<byte[]> messages = new InvalidationEvent(ORIGIN, InvalidationEvent.Region.TODO, ids).encode(1400);
+
+		// 500 identifiants de 19 chiffres : quelques datagrammes au lieu d'un par identifiant.
+		assertThat(messages).hasSizeBetween(2, 10);
+		List<Long> decodedIds = new ArrayList<>();
+		for (byte[] message : messages) {
+			assertThat(message.length).isLessThanOrEqualTo(1400);
+			InvalidationEvent event = InvalidationEvent.decode(message, message.length);
+			assertThat(event.getOrigin()).isEqualTo(ORIGIN);
+			assertThat(event.getRegion()).isEqualTo(InvalidationEvent.Region.TODO);
+			decodedIds.addAll(event.getIds());
+		}
+		assertThat(decodedIds).containsExactlyElementsOf(ids);
+	}
+
+	@Test
+	void wholeRegionIsEncodedWithoutIds() {
+		List<byte[]> messages = new InvalidationEvent(ORIGIN, InvalidationEvent.Region.TODO, null).encode(1400);
+
+		assertThat(messages).hasSize(1);
+		InvalidationEvent event = InvalidationEvent.decode(messages.get(0), messages.get(0).length);
+		assertThat(event.getRegion()).isEqualTo(InvalidationEvent.Region.TODO);
+		assertThat(event.getIds()).isNull();
+	}
+}
@@ -0,0 +1,93 @@
+package net.javaguides.todo.cache;
+
+import net.javaguides.todo.dto.TodoDto;
+import net.javaguides.todo.entity.IdNode;
+import net.javaguides.todo.entity.Todo;
+import net.javaguides.todo.id.NodeIdRegistry;
+import net.javaguides.todo.repository.IdNodeRepository;
+import net.javaguides.todo.repository.TodoRepository;
+import net.javaguides.todo.service.TodoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:loopback;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false"
+})
+class LoopbackInvalidationBusTests {
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private TodoRepository todoRepository;
+
+	@Autowired
+	private NodeIdRegistry nodeIdRegistry;
+
+	@Autowired
+	private IdNodeRepository idNodeRepository;
+
+	@BeforeEach
+	void setUp() {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("ramesh", null, List.of()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		idNodeRepository.deleteAll();
+		nodeIdRegistry.register();
+	}
+
+	@Test
+	void eventFromAnotherInstanceEvictsCachedTodo() {
+		TodoDto todo = todoService.addTodo(new TodoDto(null, "title", "description", false));
+		assertThat(todoService.getTodo(todo.getId()).getTitle()).isEqualTo("title");
+
+		// Modification faite par une autre instance : la base change sans passer par le cache de cette instance.
+		Todo stored = todoRepository.findById(todo.getId()).orElseThrow();
+		stored.setTitle("changed");
+		todoRepository.save(stored);
+		assertThat(todoService.getTodo(todo.getId()).getTitle()).isEqualTo("title");
+
+		// L'autre instance publie l'invalidation sur le même canal.
+		LoopbackInvalidationBus otherInstance = new LoopbackInvalidationBus();
+		try {
+			otherInstance.publish(InvalidationEvent.Region.TODO, todo.getId());
+		} finally {
+			otherInstance.close();
+		}
+
+		assertThat(todoService.getTodo(todo.getId()).getTitle()).isEqualTo("changed");
+	}
+
+	@Test
+	void startupFailsWhenAnotherInstanceIsRunning() {
+		idNodeRepository.saveAndFlush(new IdNode(7, "other-process", Instant.now()));
+
+		LoopbackInvalidationBus bus = new LoopbackInvalidationBus(nodeIdRegistry);
+		try {
+			assertThatThrownBy(bus::checkSingleInstance).isInstanceOf(IllegalStateException.class);
+		} finally {
+			bus.close();
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package net.javaguides.todo.config;
+
+import net.javaguides.todo.dto.TodoDto;
+import net.javaguides.todo.entity.Todo;
+import net.javaguides.todo.exception.ErrorDetails;
+import net.javaguides.todo.id.SnowflakeIdentifierGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class NativeRuntimeHintsTests {
+
+	private final ClassLoader classLoader = getClass().getClassLoader();
+
+	private RuntimeHints hints;
+
+	@BeforeEach
+	void setUp() {
+		hints = new RuntimeHints();
+		new NativeRuntimeHints().registerHints(hints, classLoader);
+	}
+
+	@Test
+	void mappedTypesAreRegisteredForReflection() {
+		for (Class<?> type : new Class<?>[] {TodoDto.class, Todo.class, ErrorDetails.class}) {
+			assertThat(RuntimeHintsPredicates.reflection().onType(type).withMemberCategories(
+					MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+					MemberCategory.INVOKE_DECLARED_METHODS)).accepts(hints);
+		}
+		assertThat(RuntimeHintsPredicates.reflection().onType(SnowflakeIdentifierGenerator.class)
+				.withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+	}
+
+	@Test
+	void jjwtTypesExistAndAreRegistered() {
+		for (String type : NativeRuntimeHints.JJWT_TYPES) {
+			// Une class renommée dans une nouvelle version de jjwt rendrait l'indication inutile.
+			assertThatCode(() -> Class.forName(type, false, classLoader)).doesNotThrowAnyException();
+			assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))).accepts(hints);
+		}
+	}
+
+	@Test
+	void jjwtServiceFilesAreIncluded() {
+		String serializer = "META-INF/services/io.jsonwebtoken.io.Serializer";
+		assertThat(classLoader.getResource(serializer)).isNotNull();
+		assertThat(RuntimeHintsPredicates.resource().forResource(serializer)).accepts(hints);
+	}
+}
@@ -0,0 +1,123 @@
+package net.javaguides.todo.config;
+
+import net.javaguides.todo.entity.Todo;
+import net.javaguides.todo.exception.ResourceNotFoundException;
+import net.javaguides.todo.repository.TodoRepository;
+import net.javaguides.todo.service.TodoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false",
+		"app.datasource.replica.enabled=true",
+		"app.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:todos-schema.sql'",
+		"app.datasource.replica.username=sa",
+		"app.datasource.replica.password=",
+		"app.datasource.replica.lag-query=",
+		"app.datasource.replica.health-check-interval-milliseconds=3600000"
+})
+class ReadWriteRoutingDataSourceTests {
+
+	// Identifiant d'un todo présent uniquement sur le réplica : il permet de savoir quelle base a été lue.
+	private static final long REPLICA_ONLY_ID = 42L;
+
+	@Autowired
+	private TodoRepository todoRepository;
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private ReadWriteRoutingDataSource routingDataSource;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primaryDataSource;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private DataSource replicaDataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private JdbcTemplate primary;
+
+	private JdbcTemplate replica;
+
+	@BeforeEach
+	void setUp() {
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(replicaDataSource);
+
+		replica.update("DELETE FROM todos");
+		replica.update("INSERT INTO todos VALUES (?, 'replica', 'replica', FALSE, 'ramesh', "
+				+ "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", REPLICA_ONLY_ID);
+		primary.update("DELETE FROM todos");
+	}
+
+	@AfterEach
+	void tearDown() {
+		routingDataSource.setReplicaAvailable(true);
+	}
+
+	@Test
+	void readOnlyTransactionsReadFromReplica() {
+		assertThat(findInTransaction(true)).map(Todo::getTitle).contains("replica");
+	}
+
+	@Test
+	void readWriteTransactionsReadFromPrimary() {
+		assertThat(findInTransaction(false)).isEmpty();
+	}
+
+	@Test
+	void writesGoToPrimary() {
+		Todo todo = new Todo();
+		todo.setTitle("primary");
+		todo.setDescription("primary");
+		todo.setOwner("ramesh");
+		todoRepository.save(todo);
+
+		assertThat(primary.queryForObject("SELECT COUNT(*) FROM todos", Integer.class)).isEqualTo(1);
+		assertThat(replica.queryForList("SELECT id FROM todos", Long.class)).containsExactly(REPLICA_ONLY_ID);
+	}
+
+	@Test
+	void cacheMissesAreLoadedFromPrimary() {
+		// Un todo mis en cache ne doit pas provenir d'un réplica en retard.
+		assertThatThrownBy(() -> todoService.getTodo(REPLICA_ONLY_ID)).isInstanceOf(ResourceNotFoundException.class);
+	}
+
+	@Test
+	void readsFallBackToPrimaryWhenReplicaIsUnavailable() {
+		routingDataSource.setReplicaAvailable(false);
+
+		assertThat(findInTransaction(true)).isEmpty();
+	}
+
+	private Optional<Todo> findInTransaction(boolean readOnly) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> todoRepository.findById(REPLICA_ONLY_ID));
+	}
+}
@@ -0,0 +1,90 @@
+package net.javaguides.todo.config;
+
+import net.javaguides.todo.dto.LoginDto;
+import net.javaguides.todo.dto.RegisterDto;
+import net.javaguides.todo.entity.Role;
+import net.javaguides.todo.repository.RoleRepository;
+import net.javaguides.todo.repository.UserRepository;
+import net.javaguides.todo.security.JwtTokenProvider;
+import net.javaguides.todo.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:security;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false"
+})
+@AutoConfigureMockMvc
+class SpringSecurityConfigTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@SpyBean
+	private JwtTokenProvider jwtTokenProvider;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		if (roleRepository.findByName("ROLE_USER") == null) {
+			roleRepository.save(new Role(null, "ROLE_USER"));
+		}
+		authService.register(new RegisterDto("name", "ramesh", "ramesh@gmail.com", "secret"));
+	}
+
+	@Test
+	void basicAuthenticationIsRejected() throws Exception {
+		String credentials = Base64.getEncoder().encodeToString("ramesh:secret".getBytes(StandardCharsets.UTF_8));
+
+		mockMvc.perform(get("/api/todos").header(HttpHeaders.AUTHORIZATION, "Basic " + credentials))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void bearerTokenIsAccepted() throws Exception {
+		String accessToken = authService.login(new LoginDto("ramesh", "secret")).getAccessToken();
+
+		mockMvc.perform(get("/api/todos").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void publicPathsDoNotParseTokens() throws Exception {
+		String accessToken = authService.login(new LoginDto("ramesh", "secret")).getAccessToken();
+
+		mockMvc.perform(get("/actuator/health").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+				.andExpect(status().isOk());
+
+		// Le jeton n'est ni décodé ni vérifié pour une route publique.
+		verify(jwtTokenProvider, never()).parseAccessToken(anyString());
+	}
+}
@@ -0,0 +1,27 @@
+package net.javaguides.todo.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TodoDtoTests {
+
+	// Identifiant supérieur à 2^53 : il ne peut pas être représenté exactement par un nombre JavaScript.
+	private static final long LARGE_ID = 9_007_199_254_740_993L;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void idIsWrittenAsString() throws Exception {
+		String json = objectMapper.writeValueAsString(new TodoDto(LARGE_ID, "title", "description", false));
+
+		assertThat(json).contains("\"id\":\"9007199254740993\"");
+	}
+
+	@Test
+	void idIsReadFromStringOrNumber() throws Exception {
+		assertThat(objectMapper.readValue("{\"id\":\"9007199254740993\"}", TodoDto.class).getId()).isEqualTo(LARGE_ID);
+		assertThat(objectMapper.readValue("{\"id\":9007199254740993}", TodoDto.class).getId()).isEqualTo(LARGE_ID);
+	}
+}
@@ -0,0 +1,109 @@
+package net.javaguides.todo.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.todo.dto.LoginDto;
+import net.javaguides.todo.dto.RegisterDto;
+import net.javaguides.todo.entity.Role;
+import net.javaguides.todo.repository.RoleRepository;
+import net.javaguides.todo.repository.UserRepository;
+import net.javaguides.todo.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:errors;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false"
+})
+@AutoConfigureMockMvc
+class GlobalExceptionHandlerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	private String accessToken;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		if (roleRepository.findByName("ROLE_USER") == null) {
+			roleRepository.save(new Role(null, "ROLE_USER"));
+		}
+		authService.register(new RegisterDto("name", "ramesh", "ramesh@gmail.com", "secret"));
+		accessToken = authService.login(new LoginDto("ramesh", "secret")).getAccessToken();
+	}
+
+	@Test
+	void missingTodoReturnsNotFoundWithErrorDetails() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/todos/123456789")
+						.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+				.andExpect(status().isNotFound())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andReturn();
+
+		assertErrorDetails(result, "uri=/api/todos/123456789");
+	}
+
+	@Test
+	void todoApiExceptionReturnsItsStatusWithErrorDetails() throws Exception {
+		MvcResult result = mockMvc.perform(post("/api/auth/refresh")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"refreshToken\":\"invalid\"}"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andReturn();
+
+		assertErrorDetails(result, "uri=/api/auth/refresh");
+	}
+
+	// Le corps doit être identique à celui produit auparavant par la sérialisation de ErrorDetails
+	// par les convertisseurs de Spring MVC (mêmes champs, même ordre, même format de date).
+	private void assertErrorDetails(MvcResult result, String details) throws Exception {
+		String body = result.getResponse().getContentAsString();
+		JsonNode json = objectMapper.readTree(body);
+
+		List<String> fields = new ArrayList<>();
+		json.fieldNames().forEachRemaining(fields::add);
+		assertThat(fields).containsExactly("timeStamp", "message", "details");
+		assertThat(json.get("message").asText()).isNotBlank();
+		assertThat(json.get("details").asText()).isEqualTo(details);
+
+		ErrorDetails expected = new ErrorDetails(LocalDateTime.parse(json.get("timeStamp").asText()),
+				json.get("message").asText(), details);
+		assertThat(body).isEqualTo(objectMapper.writeValueAsString(expected));
+	}
+}
@@ -0,0 +1,82 @@
+package net.javaguides.todo.id;
+
+import net.javaguides.todo.entity.IdNode;
+import net.javaguides.todo.repository.IdNodeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:nodes;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false"
+})
+class NodeIdRegistryTests {
+
+	// Processus fictif représentant une autre instance de l'application.
+	private static final String OTHER_PROCESS = "other-process";
+
+	@Autowired
+	private NodeIdRegistry nodeIdRegistry;
+
+	@Autowired
+	private IdNodeRepository idNodeRepository;
+
+	@AfterEach
+	void tearDown() {
+		idNodeRepository.deleteAll();
+		nodeIdRegistry.register();
+	}
+
+	@Test
+	void instanceRegistersItsNodeId() {
+		assertThat(nodeIdRegistry.getNodeId()).isZero();
+		assertThat(idNodeRepository.findById(0)).isPresent();
+		assertThat(nodeIdRegistry.hasOtherInstances()).isFalse();
+	}
+
+	@Test
+	void nodeIdUsedByAnotherInstanceIsRejected() {
+		idNodeRepository.saveAndFlush(new IdNode(5, OTHER_PROCESS, Instant.now()));
+
+		assertThatThrownBy(() -> registry("5").register()).isInstanceOf(IllegalStateException.class);
+		assertThat(nodeIdRegistry.hasOtherInstances()).isTrue();
+	}
+
+	@Test
+	void nodeIdOfStoppedInstanceIsReused() {
+		idNodeRepository.saveAndFlush(new IdNode(6, OTHER_PROCESS, Instant.now().minus(Duration.ofMinutes(5))));
+
+		NodeIdRegistry registry = registry("6");
+		registry.register();
+
+		assertThat(nodeIdRegistry.hasOtherInstances()).isFalse();
+		registry.release();
+		assertThat(idNodeRepository.findById(6)).isEmpty();
+	}
+
+	@Test
+	void nodeIdIsRequiredWithShardingOrMulticast() {
+		assertThatThrownBy(() -> new NodeIdRegistry(idNodeRepository, "", true, "loopback", 30000))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> new NodeIdRegistry(idNodeRepository, " ", false, "multicast", 30000))
+				.isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> new NodeIdRegistry(idNodeRepository, "32", true, "loopback", 30000))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private NodeIdRegistry registry(String nodeId) {
+		return new NodeIdRegistry(idNodeRepository, nodeId, false, "loopback", 30000);
+	}
+}
@@ -0,0 +1,146 @@
+package net.javaguides.todo.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTests {
+
+	private static final long NOW = SnowflakeIdGenerator.EPOCH + TimeUnit.DAYS.toMillis(1000);
+
+	private static final int SEQUENCE_SIZE = 1 << SnowflakeIdGenerator.SEQUENCE_BITS;
+
+	@Test
+	void idsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+		int threads = 8;
+		int idsPerThread = 50_000;
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<long[]>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					long[] ids = new long[idsPerThread];
+					for (int j = 0; j < idsPerThread; j++) {
+						ids[j] = generator.nextId();
+					}
+					return ids;
+				}));
+			}
+			start.countDown();
+
+			Set<Long> allIds = new HashSet<>();
+			for (Future<long[]> future : futures) {
+				long[] ids = future.get(30, TimeUnit.SECONDS);
+				for (int j = 0; j < ids.length; j++) {
+					// Dans chaque thread, les identifiants sont strictement croissants.
+					if (j > 0) {
+						assertThat(ids[j]).isGreaterThan(ids[j - 1]);
+					}
+					allIds.add(ids[j]);
+				}
+			}
+			assertThat(allIds).hasSize(threads * idsPerThread);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void exhaustedSequenceMovesToNextMillisecond() {
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> NOW);
+
+		long previous = -1;
+		for (int i = 0; i < SEQUENCE_SIZE; i++) {
+			long id = generator.nextId();
+			assertThat(timestamp(id)).isEqualTo(NOW);
+			assertThat(sequence(id)).isEqualTo(i);
+			assertThat(id).isGreaterThan(previous);
+			previous = id;
+		}
+
+		// La séquence de la milliseconde est épuisée : l'identifiant suivant utilise la milliseconde suivante.
+		long next = generator.nextId();
+		assertThat(timestamp(next)).isEqualTo(NOW + 1);
+		assertThat(sequence(next)).isZero();
+		assertThat(next).isGreaterThan(previous);
+	}
+
+	@Test
+	void clockGoingBackwardsKeepsIdsIncreasing() {
+		AtomicLong clock = new AtomicLong(NOW);
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+		long before = generator.nextId();
+		clock.set(NOW - 5_000);
+		long after = generator.nextId();
+
+		assertThat(after).isGreaterThan(before);
+		assertThat(timestamp(after)).isEqualTo(NOW);
+
+		// Lorsque l'horloge rattrape son retard, les identifiants suivent de nouveau l'horloge.
+		clock.set(NOW + 10);
+		assertThat(timestamp(generator.nextId())).isEqualTo(NOW + 10);
+	}
+
+	@Test
+	void workerIdMustBeInRange() {
+		assertThatThrownBy(() -> new SnowflakeIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID + 1))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		long id = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID, () -> NOW).nextId();
+		assertThat((id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_WORKER_ID)
+				.isEqualTo(SnowflakeIdGenerator.MAX_WORKER_ID);
+		assertThat(timestamp(id)).isEqualTo(NOW);
+	}
+
+	@Test
+	void shardIsEncodedInId() {
+		for (int shard = 0; shard <= SnowflakeIdGenerator.MAX_SHARD; shard++) {
+			long workerId = SnowflakeIdGenerator.shardWorkerId(shard, 31);
+			long id = new SnowflakeIdGenerator(workerId, () -> NOW).nextId();
+			assertThat(SnowflakeIdGenerator.shardOf(id)).isEqualTo(shard);
+		}
+	}
+
+	@Test
+	void legacyIdsBelongToShardZero() {
+		assertThat(SnowflakeIdGenerator.shardOf(200_000L)).isZero();
+		assertThat(SnowflakeIdGenerator.shardOf(SnowflakeIdGenerator.LEGACY_ID_LIMIT - 1)).isZero();
+
+		// Tout identifiant généré (après le premier jour suivant EPOCH) est reconnu comme tel.
+		long id = new SnowflakeIdGenerator(0, () -> SnowflakeIdGenerator.EPOCH + TimeUnit.DAYS.toMillis(1)).nextId();
+		assertThat(SnowflakeIdGenerator.isLegacyId(id)).isFalse();
+	}
+
+	@Test
+	void minIdAtBoundsIdsGeneratedEarlier() {
+		long id = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID, () -> NOW).nextId();
+
+		assertThat(SnowflakeIdGenerator.minIdAt(NOW)).isLessThanOrEqualTo(id);
+		assertThat(SnowflakeIdGenerator.minIdAt(NOW + 1)).isGreaterThan(id);
+	}
+
+	private static long timestamp(long id) {
+		return (id >>> (SnowflakeIdGenerator.WORKER_BITS + SnowflakeIdGenerator.SEQUENCE_BITS)) + SnowflakeIdGenerator.EPOCH;
+	}
+
+	private static long sequence(long id) {
+		return id & (SEQUENCE_SIZE - 1);
+	}
+}
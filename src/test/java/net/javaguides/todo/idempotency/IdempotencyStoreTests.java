@@ -0,0 +1,187 @@
+package net.javaguides.todo.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.todo.dto.TodoDto;
+import net.javaguides.todo.exception.TodoAPIException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTests {
+
+	private static final String KEY = "key-1";
+
+	private final IdempotencyStore store = new IdempotencyStore(1_000_000, 3600, 1000, new ObjectMapper());
+
+	private final AtomicInteger executions = new AtomicInteger();
+
+	@Test
+	void repeatedRequestIsReplayedWithHeader() {
+		ResponseEntity<TodoDto> first = store.execute(KEY, todo("title"), this::created);
+		ResponseEntity<TodoDto> second = store.execute(KEY, todo("title"), this::created);
+
+		assertThat(executions).hasValue(1);
+		assertThat(first.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+		assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(second.getBody()).isSameAs(first.getBody());
+	}
+
+	@Test
+	void keyReusedWithDifferentBodyIsRejected() {
+		store.execute(KEY, todo("title"), this::created);
+
+		assertThatThrownBy(() -> store.execute(KEY, todo("other title"), this::created))
+				.isInstanceOfSatisfying(TodoAPIException.class,
+						e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+		assertThat(executions).hasValue(1);
+	}
+
+	@Test
+	void keyIsReleasedAfterFailure() {
+		assertThatThrownBy(() -> store.execute(KEY, todo("title"), () -> {
+			throw new IllegalStateException("database unavailable");
+		})).isInstanceOf(IllegalStateException.class);
+
+		// La même clé peut être réutilisée pour un nouvel essai, qui est exécuté.
+		ResponseEntity<TodoDto> retry = store.execute(KEY, todo("title"), this::created);
+
+		assertThat(executions).hasValue(1);
+		assertThat(retry.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+	}
+
+	@Test
+	void keyIsReleasedAfterError() {
+		assertThatThrownBy(() -> store.execute(KEY, todo("title"), () -> {
+			throw new OutOfMemoryError("Java heap space");
+		})).isInstanceOf(OutOfMemoryError.class);
+
+		ResponseEntity<TodoDto> retry = store.execute(KEY, todo("title"), this::created);
+
+		assertThat(executions).hasValue(1);
+		assertThat(retry.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+	}
+
+	@Test
+	void memoryIsBoundedByResponseSize() {
+		long maxWeightBytes = 20_000;
+		IdempotencyStore smallStore = new IdempotencyStore(maxWeightBytes, 3600, 1000, new ObjectMapper());
+		TodoDto largeTodo = new TodoDto(1L, "title", "x".repeat(1000), false);
+
+		for (int i = 0; i < 100; i++) {
+			smallStore.execute("bulk-" + i, todo("title"), () -> {
+				executions.incrementAndGet();
+				return new ResponseEntity<>(largeTodo, HttpStatus.CREATED);
+			});
+		}
+
+		// Chaque réponse pèse plus de 1000 octets : une vingtaine d'entrées au plus sont conservées.
+		assertThat(smallStore.weightedSize()).isBetween(10_000L, maxWeightBytes);
+
+		// Une réponse plus lourde que la limite n'est pas conservée.
+		TodoDto hugeTodo = new TodoDto(1L, "title", "x".repeat(30_000), false);
+		smallStore.execute(KEY, todo("title"), () -> new ResponseEntity<>(hugeTodo, HttpStatus.CREATED));
+		assertThat(smallStore.weightedSize()).isLessThanOrEqualTo(maxWeightBytes);
+		ResponseEntity<TodoDto> retry = smallStore.execute(KEY, todo("title"), this::created);
+		assertThat(retry.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+	}
+
+	@Test
+	void concurrentDuplicatesAreExecutedOnce() throws Exception {
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch executing = new CountDownLatch(1);
+		try {
+			List<Future<ResponseEntity<TodoDto>>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return store.execute(KEY, todo("title"), () -> {
+						executing.countDown();
+						sleep(200);
+						return created();
+					});
+				}));
+			}
+			start.countDown();
+
+			assertThat(executing.await(5, TimeUnit.SECONDS)).isTrue();
+			int replayed = 0;
+			for (Future<ResponseEntity<TodoDto>> future : futures) {
+				ResponseEntity<TodoDto> response = future.get(5, TimeUnit.SECONDS);
+				assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+				if (response.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)) {
+					replayed++;
+				}
+			}
+			assertThat(executions).hasValue(1);
+			assertThat(replayed).isEqualTo(threads - 1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void duplicateWaitingTooLongGetsConflict() throws Exception {
+		IdempotencyStore shortWaitStore = new IdempotencyStore(1_000_000, 3600, 50, new ObjectMapper());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		CountDownLatch executing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			Future<ResponseEntity<TodoDto>> first = executor.submit(() -> shortWaitStore.execute(KEY, todo("title"), () -> {
+				executing.countDown();
+				await(release);
+				return created();
+			}));
+			assertThat(executing.await(5, TimeUnit.SECONDS)).isTrue();
+
+			assertThatThrownBy(() -> shortWaitStore.execute(KEY, todo("title"), this::created))
+					.isInstanceOfSatisfying(TodoAPIException.class,
+							e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+
+			release.countDown();
+			assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+			assertThat(executions).hasValue(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private ResponseEntity<TodoDto> created() {
+		executions.incrementAndGet();
+		return new ResponseEntity<>(new TodoDto(1L, "title", "description", false), HttpStatus.CREATED);
+	}
+
+	private static TodoDto todo(String title) {
+		return new TodoDto(null, title, "description", false);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
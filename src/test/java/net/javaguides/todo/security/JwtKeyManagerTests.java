@@ -0,0 +1,110 @@
+package net.javaguides.todo.security;
+
+import net.javaguides.todo.repository.JwtSigningKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:jwks;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false"
+})
+@AutoConfigureMockMvc
+class JwtKeyManagerTests {
+
+	private static final Duration ROTATION = Duration.ofHours(24);
+
+	private static final Duration ACTIVATION_DELAY = Duration.ofMinutes(10);
+
+	private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtKeyManager jwtKeyManager;
+
+	@Autowired
+	private JwtSigningKeyRepository jwtSigningKeyRepository;
+
+	private final AtomicReference<Instant> now = new AtomicReference<>(START);
+
+	@BeforeEach
+	void setUp() {
+		jwtSigningKeyRepository.deleteAll();
+	}
+
+	@Test
+	void jwksPublishesSigningKeyWithCacheControl() throws Exception {
+		mockMvc.perform(get("/.well-known/jwks.json"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+				.andExpect(jsonPath("$.keys[?(@.kid == '" + jwtKeyManager.getSigningKey().kid() + "')].kty").value("RSA"));
+	}
+
+	@Test
+	void nextKeyIsPublishedBeforeItSigns() {
+		JwtKeyManager keyManager = keyManager();
+		keyManager.init();
+		String firstKid = keyManager.getSigningKey().kid();
+		assertThat(kids(keyManager)).containsExactly(firstKid);
+
+		// Fin de rotation moins le délai d'activation : la clé suivante est publiée, mais ne signe pas encore.
+		now.set(START.plus(ROTATION).minus(ACTIVATION_DELAY).plusSeconds(1));
+		keyManager.refreshKeys();
+		assertThat(kids(keyManager)).hasSize(2).contains(firstKid);
+		String nextKid = kids(keyManager).get(0);
+		assertThat(keyManager.getSigningKey().kid()).isEqualTo(firstKid);
+		assertThat(keyManager.getVerificationKey(nextKid)).isNotNull();
+
+		// Juste avant la fin du délai d'activation, l'ancienne clé signe toujours.
+		now.set(START.plus(ROTATION).minusSeconds(1));
+		keyManager.refreshKeys();
+		assertThat(keyManager.getSigningKey().kid()).isEqualTo(firstKid);
+
+		// Après le délai d'activation, la nouvelle clé signe ; l'ancienne reste publiée pour les jetons déjà émis.
+		now.set(START.plus(ROTATION).plusSeconds(1));
+		keyManager.refreshKeys();
+		assertThat(keyManager.getSigningKey().kid()).isEqualTo(nextKid);
+		assertThat(kids(keyManager)).containsExactly(nextKid, firstKid);
+	}
+
+	@Test
+	void activationDelayMustCoverJwksMaxAge() {
+		assertThatThrownBy(() -> new JwtKeyManager(jwtSigningKeyRepository, ROTATION.toMillis(), 60_000, 60_000, 300,
+				604_800_000, now::get)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private JwtKeyManager keyManager() {
+		return new JwtKeyManager(jwtSigningKeyRepository, ROTATION.toMillis(), ACTIVATION_DELAY.toMillis(), 60_000, 300,
+				604_800_000, now::get);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String> kids(JwtKeyManager keyManager) {
+		List<Map<String, Object>> keys = (List<Map<String, Object>>) keyManager.getJwks().get("keys");
+		return keys.stream().map(key -> (String) key.get("kid")).toList();
+	}
+}
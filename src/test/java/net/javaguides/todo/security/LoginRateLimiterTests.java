@@ -0,0 +1,82 @@
+package net.javaguides.todo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTests {
+
+	private static final long REFILL_MILLIS = 1000;
+
+	private static final long REFILL_NANOS = TimeUnit.MILLISECONDS.toNanos(REFILL_MILLIS);
+
+	@Test
+	void allowsBurstThenRejects() {
+		LoginRateLimiter.TokenBucketStore store = new LoginRateLimiter.TokenBucketStore(3, REFILL_MILLIS, 100);
+		long now = System.nanoTime();
+
+		assertThat(store.tryConsume("key", now)).isTrue();
+		assertThat(store.tryConsume("key", now)).isTrue();
+		assertThat(store.tryConsume("key", now)).isTrue();
+		assertThat(store.tryConsume("key", now)).isFalse();
+
+		// Les autres clés ont leur propre seau.
+		assertThat(store.tryConsume("other", now)).isTrue();
+	}
+
+	@Test
+	void refillsOneTokenPerInterval() {
+		LoginRateLimiter.TokenBucketStore store = new LoginRateLimiter.TokenBucketStore(2, REFILL_MILLIS, 100);
+		long now = System.nanoTime();
+
+		assertThat(store.tryConsume("key", now)).isTrue();
+		assertThat(store.tryConsume("key", now)).isTrue();
+		assertThat(store.tryConsume("key", now)).isFalse();
+
+		// Juste avant la fin de l'intervalle, aucun jeton n'est encore regagné.
+		assertThat(store.tryConsume("key", now + REFILL_NANOS - 1)).isFalse();
+
+		// Un intervalle plus tard, un seul jeton est regagné.
+		assertThat(store.tryConsume("key", now + REFILL_NANOS)).isTrue();
+		assertThat(store.tryConsume("key", now + REFILL_NANOS)).isFalse();
+
+		// Après une longue inactivité, le seau est de nouveau plein, sans dépasser sa capacité.
+		long later = now + 10 * REFILL_NANOS;
+		assertThat(store.tryConsume("key", later)).isTrue();
+		assertThat(store.tryConsume("key", later)).isTrue();
+		assertThat(store.tryConsume("key", later)).isFalse();
+	}
+
+	@Test
+	void locksOutUserAcrossIpAddresses() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		LoginRateLimiter limiter = new LoginRateLimiter(100, REFILL_MILLIS, 3, 60_000, 100, meterRegistry);
+
+		// Les tentatives viennent de plusieurs adresses IP, et le nom d'utilisateur varie en casse et en espaces.
+		assertThat(limiter.tryAcquire("10.0.0.1", "alice")).isTrue();
+		assertThat(limiter.tryAcquire("10.0.0.2", " Alice ")).isTrue();
+		assertThat(limiter.tryAcquire("10.0.0.3", "ALICE")).isTrue();
+		assertThat(limiter.tryAcquire("10.0.0.4", "alice")).isFalse();
+
+		// Les autres utilisateurs ne sont pas bloqués.
+		assertThat(limiter.tryAcquire("10.0.0.4", "bob")).isTrue();
+
+		assertThat(meterRegistry.get("auth.login.throttled").tag("limit", "user").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("auth.login.throttled").tag("limit", "ip").counter().count()).isZero();
+	}
+
+	@Test
+	void locksOutIpAddressAcrossUsers() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		LoginRateLimiter limiter = new LoginRateLimiter(2, REFILL_MILLIS, 100, 60_000, 100, meterRegistry);
+
+		assertThat(limiter.tryAcquire("10.0.0.1", "alice")).isTrue();
+		assertThat(limiter.tryAcquire("10.0.0.1", "bob")).isTrue();
+		assertThat(limiter.tryAcquire("10.0.0.1", "carol")).isFalse();
+
+		assertThat(meterRegistry.get("auth.login.throttled").tag("limit", "ip").counter().count()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,104 @@
+package net.javaguides.todo.service.impl;
+
+import net.javaguides.todo.dto.RegisterDto;
+import net.javaguides.todo.entity.Role;
+import net.javaguides.todo.exception.TodoAPIException;
+import net.javaguides.todo.repository.RoleRepository;
+import net.javaguides.todo.repository.UserRepository;
+import net.javaguides.todo.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:register;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false"
+})
+class AuthServiceImplConcurrencyTests {
+
+	private static final int THREADS = 8;
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.deleteAll();
+		if (roleRepository.findByName("ROLE_USER") == null) {
+			roleRepository.save(new Role(null, "ROLE_USER"));
+		}
+	}
+
+	@Test
+	void parallelSignupsWithSameUsernameCreateSingleAccount() throws Exception {
+		List<Object> results = registerInParallel(i -> new RegisterDto("name", "ramesh", "ramesh" + i + "@gmail.com", "secret"));
+
+		assertThat(results).filteredOn("User Registered Successfully!."::equals).hasSize(1);
+		assertThat(results).filteredOn(TodoAPIException.class::isInstance)
+				.hasSize(THREADS - 1)
+				.allSatisfy(e -> assertThat(((TodoAPIException) e).getMessage()).isEqualTo("Username already exists!"));
+		assertThat(userRepository.count()).isEqualTo(1);
+	}
+
+	@Test
+	void parallelSignupsWithSameEmailCreateSingleAccount() throws Exception {
+		List<Object> results = registerInParallel(i -> new RegisterDto("name", "user" + i, "same@gmail.com", "secret"));
+
+		assertThat(results).filteredOn("User Registered Successfully!."::equals).hasSize(1);
+		assertThat(results).filteredOn(TodoAPIException.class::isInstance)
+				.hasSize(THREADS - 1)
+				.allSatisfy(e -> assertThat(((TodoAPIException) e).getMessage()).isEqualTo("Email is already exists!."));
+		assertThat(userRepository.count()).isEqualTo(1);
+	}
+
+	private List<Object> registerInParallel(IntFunction<RegisterDto> registerDtos) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Object>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				RegisterDto registerDto = registerDtos.apply(i);
+				futures.add(executor.submit(() -> {
+					start.await();
+					try {
+						return authService.register(registerDto);
+					} catch (TodoAPIException e) {
+						return e;
+					}
+				}));
+			}
+			start.countDown();
+
+			List<Object> results = new ArrayList<>();
+			for (Future<Object> future : futures) {
+				results.add(future.get(30, TimeUnit.SECONDS));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
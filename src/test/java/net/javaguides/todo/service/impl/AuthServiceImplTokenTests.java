@@ -0,0 +1,151 @@
+package net.javaguides.todo.service.impl;
+
+import io.jsonwebtoken.Claims;
+import net.javaguides.todo.dto.JwtAuthResponse;
+import net.javaguides.todo.dto.LoginDto;
+import net.javaguides.todo.dto.RegisterDto;
+import net.javaguides.todo.dto.TodoDto;
+import net.javaguides.todo.entity.Role;
+import net.javaguides.todo.exception.TodoAPIException;
+import net.javaguides.todo.repository.RevokedTokenRepository;
+import net.javaguides.todo.repository.RoleRepository;
+import net.javaguides.todo.repository.TodoRepository;
+import net.javaguides.todo.repository.UserRepository;
+import net.javaguides.todo.security.JwtTokenProvider;
+import net.javaguides.todo.security.TokenRevocationStore;
+import net.javaguides.todo.service.AuthService;
+import net.javaguides.todo.service.TodoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:tokens;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false"
+})
+class AuthServiceImplTokenTests {
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private JwtTokenProvider jwtTokenProvider;
+
+	@Autowired
+	private TokenRevocationStore tokenRevocationStore;
+
+	@Autowired
+	private RevokedTokenRepository revokedTokenRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private TodoRepository todoRepository;
+
+	@BeforeEach
+	void setUp() {
+		revokedTokenRepository.deleteAll();
+		userRepository.deleteAll();
+		if (roleRepository.findByName("ROLE_USER") == null) {
+			roleRepository.save(new Role(null, "ROLE_USER"));
+		}
+		authService.register(new RegisterDto("name", "ramesh", "ramesh@gmail.com", "secret"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void refreshRotatesTokens() {
+		JwtAuthResponse login = authService.login(new LoginDto("ramesh", "secret"));
+
+		JwtAuthResponse refreshed = authService.refresh(login.getRefreshToken());
+
+		assertThat(refreshed.getAccessToken()).isNotEqualTo(login.getAccessToken());
+		assertThat(refreshed.getRefreshToken()).isNotEqualTo(login.getRefreshToken());
+		assertThat(jwtTokenProvider.parseAccessToken(refreshed.getAccessToken()).getSubject()).isEqualTo("ramesh");
+		assertThat(revokedTokenRepository.existsById(refreshClaims(login).getId())).isTrue();
+
+		// Le nouveau jeton de rafraîchissement est utilisable à son tour.
+		assertThat(authService.refresh(refreshed.getRefreshToken()).getAccessToken()).isNotNull();
+	}
+
+	@Test
+	void replayedRefreshTokenIsRejected() {
+		JwtAuthResponse login = authService.login(new LoginDto("ramesh", "secret"));
+		authService.refresh(login.getRefreshToken());
+
+		assertThatThrownBy(() -> authService.refresh(login.getRefreshToken()))
+				.isInstanceOf(TodoAPIException.class)
+				.satisfies(e -> assertThat(((TodoAPIException) e).getStatus()).isEqualTo(HttpStatus.UNAUTHORIZED));
+	}
+
+	@Test
+	void refreshTokenRotatedOnAnotherInstanceIsRejected() {
+		JwtAuthResponse login = authService.login(new LoginDto("ramesh", "secret"));
+		Claims claims = refreshClaims(login);
+
+		// Une autre instance (ou cette instance après un redémarrage) partage la même table de révocation.
+		TokenRevocationStore otherInstance = new TokenRevocationStore(revokedTokenRepository, 900000, 5000);
+		otherInstance.init();
+		assertThat(otherInstance.revoke(claims.getId(), claims.getExpiration())).isTrue();
+
+		assertThatThrownBy(() -> authService.refresh(login.getRefreshToken()))
+				.isInstanceOf(TodoAPIException.class);
+	}
+
+	@Test
+	void logoutRevokesBothTokens() {
+		JwtAuthResponse login = authService.login(new LoginDto("ramesh", "secret"));
+		String accessTokenId = jwtTokenProvider.parseAccessToken(login.getAccessToken()).getId();
+
+		authService.logout(login.getAccessToken(), login.getRefreshToken());
+
+		assertThat(tokenRevocationStore.isRevoked(accessTokenId)).isTrue();
+		assertThatThrownBy(() -> authService.refresh(login.getRefreshToken()))
+				.isInstanceOf(TodoAPIException.class);
+
+		// Les autres instances chargent le jeton d'accès révoqué depuis la base de données.
+		TokenRevocationStore otherInstance = new TokenRevocationStore(revokedTokenRepository, 900000, 5000);
+		assertThat(otherInstance.isRevoked(accessTokenId)).isFalse();
+		otherInstance.init();
+		assertThat(otherInstance.isRevoked(accessTokenId)).isTrue();
+	}
+
+	@Test
+	void loginByEmailUsesUsername() {
+		JwtAuthResponse login = authService.login(new LoginDto("ramesh@gmail.com", "secret"));
+
+		assertThat(jwtTokenProvider.parseAccessToken(login.getAccessToken()).getSubject()).isEqualTo("ramesh");
+		assertThat(refreshClaims(login).getSubject()).isEqualTo("ramesh");
+
+		// Le propriétaire (et donc la clé de sharding) est le même quelle que soit la façon de se connecter.
+		TodoDto todo = todoService.addTodo(new TodoDto(null, "title", "description", false));
+		assertThat(todoRepository.findById(todo.getId())).get().extracting("owner").isEqualTo("ramesh");
+	}
+
+	private Claims refreshClaims(JwtAuthResponse response) {
+		return jwtTokenProvider.parseRefreshToken(response.getRefreshToken());
+	}
+}
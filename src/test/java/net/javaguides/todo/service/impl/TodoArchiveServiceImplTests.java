@@ -0,0 +1,117 @@
+package net.javaguides.todo.service.impl;
+
+import net.javaguides.todo.id.SnowflakeIdGenerator;
+import net.javaguides.todo.service.TodoArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:archive-schema.sql'",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false",
+		"app.archive.batch-size=2",
+		"app.archive.batch-pause-milliseconds=0"
+})
+class TodoArchiveServiceImplTests {
+
+	private static final Instant NOW = Instant.now();
+
+	// Todos créés il y a 200 jours (la limite d'archivage est de 90 jours).
+	private static final long BASE_ID = SnowflakeIdGenerator.minIdAt(NOW.minus(Duration.ofDays(200)).toEpochMilli());
+
+	private static final Instant OLD = NOW.minus(Duration.ofDays(100));
+
+	@Autowired
+	private TodoArchiveService todoArchiveService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM todos");
+		jdbcTemplate.update("DELETE FROM todos_archive");
+		jdbcTemplate.update("DELETE FROM todos_archive_checkpoint");
+
+		insertTodo(BASE_ID + 1, true, OLD);
+		insertTodo(BASE_ID + 2, false, OLD);
+		insertTodo(BASE_ID + 3, true, OLD);
+		insertTodo(BASE_ID + 4, true, NOW);
+		insertTodo(BASE_ID + 5, true, OLD);
+		insertTodo(SnowflakeIdGenerator.minIdAt(NOW.toEpochMilli()) + 1, true, NOW);
+	}
+
+	@Test
+	void completedOldTodosAreMovedToArchive() throws InterruptedException {
+		archive();
+
+		assertThat(archivedIds()).containsExactly(BASE_ID + 1, BASE_ID + 3, BASE_ID + 5);
+		assertThat(jdbcTemplate.queryForList("SELECT id FROM todos ORDER BY id", Long.class))
+				.containsExactly(BASE_ID + 2, BASE_ID + 4, SnowflakeIdGenerator.minIdAt(NOW.toEpochMilli()) + 1);
+		assertThat(todoArchiveService.getStatus().getArchivedInRun()).isEqualTo(3);
+		assertThat(todoArchiveService.getStatus().getLastError()).isNull();
+	}
+
+	@Test
+	void checkpointKeepsLowWaterMarkBetweenPasses() throws InterruptedException {
+		archive();
+
+		// Le plus ancien todo restant n'était pas complété : le passage suivant repart juste avant lui.
+		assertThat(checkpoint()).isEqualTo(BASE_ID + 1);
+
+		jdbcTemplate.update("UPDATE todos SET completed = TRUE WHERE id = ?", BASE_ID + 2);
+		archive();
+
+		assertThat(archivedIds()).containsExactly(BASE_ID + 1, BASE_ID + 2, BASE_ID + 3, BASE_ID + 5);
+		assertThat(checkpoint()).isEqualTo(BASE_ID + 3);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos_archive_checkpoint", Long.class)).isEqualTo(1);
+	}
+
+	@Test
+	void archiveResumesAfterCheckpoint() throws InterruptedException {
+		jdbcTemplate.update("INSERT INTO todos_archive_checkpoint (job, last_id, updated_at) VALUES ('todos', ?, CURRENT_TIMESTAMP(6))",
+				BASE_ID + 3);
+
+		archive();
+
+		// Les identifiants inférieurs au point de reprise ne sont pas parcourus.
+		assertThat(archivedIds()).containsExactly(BASE_ID + 5);
+	}
+
+	private void archive() throws InterruptedException {
+		assertThat(todoArchiveService.startArchive()).isTrue();
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (todoArchiveService.getStatus().isRunning() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(todoArchiveService.getStatus().isRunning()).isFalse();
+	}
+
+	private void insertTodo(long id, boolean completed, Instant updatedAt) {
+		jdbcTemplate.update("INSERT INTO todos (id, title, description, completed, owner, created_at, updated_at) "
+						+ "VALUES (?, 'title', 'description', ?, 'ramesh', ?, ?)",
+				id, completed, Timestamp.from(updatedAt), Timestamp.from(updatedAt));
+	}
+
+	private List<Long> archivedIds() {
+		return jdbcTemplate.queryForList("SELECT id FROM todos_archive ORDER BY id", Long.class);
+	}
+
+	private long checkpoint() {
+		return jdbcTemplate.queryForObject("SELECT last_id FROM todos_archive_checkpoint WHERE job = 'todos'", Long.class);
+	}
+}
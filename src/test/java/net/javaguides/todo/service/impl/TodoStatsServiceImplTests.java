@@ -0,0 +1,159 @@
+package net.javaguides.todo.service.impl;
+
+import net.javaguides.todo.dto.TodoDto;
+import net.javaguides.todo.repository.TodoRepository;
+import net.javaguides.todo.service.TodoService;
+import net.javaguides.todo.service.TodoStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:stats;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false",
+		"app.datasource.replica.enabled=true",
+		"app.datasource.replica.url=jdbc:h2:mem:statsreplica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:todos-schema.sql'",
+		"app.datasource.replica.username=sa",
+		"app.datasource.replica.password=",
+		"app.datasource.replica.lag-query=",
+		"app.datasource.replica.health-check-interval-milliseconds=3600000",
+		"app.stats.reconcile-interval-milliseconds=3600000"
+})
+class TodoStatsServiceImplTests {
+
+	@Autowired
+	private TodoStatsServiceImpl todoStatsService;
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private TodoRepository todoRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private DataSource replicaDataSource;
+
+	@BeforeEach
+	void setUp() {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("ramesh", null, List.of()));
+		todoRepository.deleteAll();
+
+		// Le réplica contient un todo absent de la base principale : il ne doit pas être compté.
+		JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+		replica.update("DELETE FROM todos");
+		replica.update("INSERT INTO todos VALUES (42, 'replica', 'replica', TRUE, 'ramesh', "
+				+ "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+		todoStatsService.reconcile();
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void reconcileCountsOnPrimary() {
+		todoService.addTodo(new TodoDto(null, "title", "description", true));
+		todoService.addTodo(new TodoDto(null, "title", "description", false));
+
+		todoStatsService.reconcile();
+
+		assertThat(todoStatsService.getStats().getTotal()).isEqualTo(2);
+		assertThat(todoStatsService.getStats().getCompleted()).isEqualTo(1);
+	}
+
+	@Test
+	void writesAreCountedAfterCommit() {
+		TodoDto todo = todoService.addTodo(new TodoDto(null, "title", "description", false));
+		assertThat(todoStatsService.getStats().getTotal()).isEqualTo(1);
+		assertThat(todoStatsService.getStats().getPending()).isEqualTo(1);
+
+		todoService.completeTodo(todo.getId());
+		assertThat(todoStatsService.getStats().getCompleted()).isEqualTo(1);
+		assertThat(todoStatsService.getStats().getPending()).isZero();
+
+		// Une variation n'est visible qu'après le commit, et jamais en cas de rollback.
+		transactionTemplate.executeWithoutResult(status -> {
+			todoStatsService.recordChange(1, 1);
+			assertThat(todoStatsService.getStats().getTotal()).isEqualTo(1);
+			status.setRollbackOnly();
+		});
+		assertThat(todoStatsService.getStats().getTotal()).isEqualTo(1);
+
+		todoService.deleteTodo(todo.getId());
+		assertThat(todoStatsService.getStats().getTotal()).isZero();
+		assertThat(todoStatsService.getStats().getCompleted()).isZero();
+	}
+
+	@Test
+	void writesDuringReconcileAreNotLost() throws Exception {
+		SecurityContext securityContext = SecurityContextHolder.getContext();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		try {
+			List<Future<?>> writers = new ArrayList<>();
+			for (int writer = 0; writer < 3; writer++) {
+				int number = writer;
+				writers.add(executor.submit(() -> {
+					SecurityContextHolder.setContext(securityContext);
+					for (int i = 0; i < 50; i++) {
+						todoService.addTodo(new TodoDto(null, "title", "description", (i + number) % 2 == 0));
+					}
+					return null;
+				}));
+			}
+			Future<?> reconciler = executor.submit(() -> {
+				while (writing.get()) {
+					todoStatsService.reconcile();
+				}
+				return null;
+			});
+			for (Future<?> writer : writers) {
+				writer.get();
+			}
+			writing.set(false);
+			reconciler.get();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Les COUNT du test sont faits sur la base principale (le réplica n'est pas alimenté).
+		// Une écriture validée pendant un COUNT peut être comptée deux fois, jamais perdue.
+		long total = transactionTemplate.execute(status -> todoRepository.count());
+		assertThat(total).isEqualTo(150);
+		assertThat(todoStatsService.getStats().getTotal()).isGreaterThanOrEqualTo(total);
+
+		todoStatsService.reconcile();
+		assertThat(todoStatsService.getStats().getTotal()).isEqualTo(total);
+		assertThat(todoStatsService.getStats().getCompleted()).isEqualTo(
+				transactionTemplate.execute(status -> todoRepository.countByCompletedTrue()));
+	}
+}
@@ -0,0 +1,140 @@
+package net.javaguides.todo.sharding;
+
+import net.javaguides.todo.dto.TodoDto;
+import net.javaguides.todo.service.TodoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.flyway.enabled=false",
+		"app.audit.enabled=false",
+		"app.sharding.enabled=true",
+		"app.id.node-id=1",
+		"app.sharding.shard-urls=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:todos-schema.sql'"
+})
+class ShardRouterTests {
+
+	@Autowired
+	private ShardRouter shardRouter;
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// Un propriétaire dont les todos sont stockés sur la shard 0, et un autre sur la shard 1.
+	private String owner0;
+
+	private String owner1;
+
+	@BeforeEach
+	void setUp() {
+		for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+			shardRouter.onShard(shard, () -> jdbcTemplate.update("DELETE FROM todos"));
+		}
+		owner0 = ownerOnShard(0);
+		owner1 = ownerOnShard(1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void todosAreStoredOnTheOwnersShard() {
+		TodoDto todo0 = addTodo(owner0, "todo of " + owner0);
+		TodoDto todo1 = addTodo(owner1, "todo of " + owner1);
+
+		assertThat(shardRouter.getShardCount()).isEqualTo(2);
+		assertThat(shardRouter.shardOf(todo0.getId())).isZero();
+		assertThat(shardRouter.shardOf(todo1.getId())).isEqualTo(1);
+		assertThat(countOnShard(0)).isEqualTo(1);
+		assertThat(countOnShard(1)).isEqualTo(1);
+		assertThat(shardRouter.onShard(1, () -> jdbcTemplate.queryForObject(
+				"SELECT title FROM todos WHERE id = ?", String.class, todo1.getId()))).isEqualTo("todo of " + owner1);
+	}
+
+	@Test
+	void onAllShardsMergesResultsOfEveryShard() {
+		addTodo(owner0, "a");
+		addTodo(owner1, "b");
+		addTodo(owner1, "c");
+
+		assertThat(shardRouter.onAllShards(shard -> List.of(shard))).containsExactly(0, 1);
+		assertThat(todoService.getAllTodos()).extracting(TodoDto::getTitle).containsExactlyInAnyOrder("a", "b", "c");
+	}
+
+	@Test
+	void keysetPagesAreSortedAndCompleteAcrossShards() {
+		List<Long> ids = new ArrayList<>();
+		IntStream.range(0, 10).forEach(i -> ids.add(addTodo(i % 3 == 0 ? owner0 : owner1, "todo " + i).getId()));
+
+		List<Long> pagedIds = new ArrayList<>();
+		Long afterId = null;
+		while (true) {
+			List<TodoDto> page = todoService.getTodos(afterId, 3);
+			if (page.isEmpty()) {
+				break;
+			}
+			assertThat(page).hasSizeLessThanOrEqualTo(3);
+			page.forEach(todo -> pagedIds.add(todo.getId()));
+			afterId = page.get(page.size() - 1).getId();
+		}
+
+		assertThat(pagedIds).isSorted().containsExactlyInAnyOrderElementsOf(ids);
+	}
+
+	@Test
+	void legacyIdsAreRoutedToShardZero() {
+		// Identifiant auto-incrémenté d'avant le générateur, supérieur à 2^17 : ses bits "shard" ne valent pas 0.
+		long legacyId = 200_000L;
+		assertThat((legacyId >>> 17) & 31).isNotZero();
+		shardRouter.onShard(0, () -> jdbcTemplate.update("INSERT INTO todos (id, title, description, completed, owner, "
+				+ "created_at, updated_at) VALUES (?, 'legacy', 'legacy', FALSE, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+				legacyId, owner1));
+
+		assertThat(shardRouter.shardOf(legacyId)).isZero();
+		assertThat(todoService.getTodo(legacyId).getTitle()).isEqualTo("legacy");
+		assertThat(todoService.completeTodo(legacyId).isCompleted()).isTrue();
+		todoService.deleteTodo(legacyId);
+		assertThat(countOnShard(0)).isZero();
+	}
+
+	private String ownerOnShard(int shard) {
+		return IntStream.range(0, 100)
+				.mapToObj(i -> "user" + i)
+				.filter(owner -> shardRouter.shardForOwner(owner) == shard)
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private TodoDto addTodo(String owner, String title) {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+				owner, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+		return todoService.addTodo(new TodoDto(null, title, "description", false));
+	}
+
+	private Integer countOnShard(int shard) {
+		return shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos", Integer.class));
+	}
+}
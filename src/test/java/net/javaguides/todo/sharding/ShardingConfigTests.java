@@ -0,0 +1,40 @@
+package net.javaguides.todo.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardingConfigTests {
+
+	@Test
+	void shardPoolsAreClosedWithDataSource() {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("app.sharding.shard-urls", "jdbc:h2:mem:pool1,jdbc:h2:mem:pool2")
+				.withProperty("spring.datasource.username", "sa")
+				.withProperty("spring.datasource.password", "");
+		DestructionAwareBeanPostProcessor postProcessor = (DestructionAwareBeanPostProcessor) ShardingConfig
+				.shardingDataSourcePostProcessor(environment, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+		DriverManagerDataSource defaultDataSource = new DriverManagerDataSource("jdbc:h2:mem:pool0", "sa", "");
+		LazyConnectionDataSourceProxy dataSource =
+				(LazyConnectionDataSourceProxy) postProcessor.postProcessAfterInitialization(defaultDataSource, "dataSource");
+		ShardRoutingDataSource routingDataSource = (ShardRoutingDataSource) dataSource.getTargetDataSource();
+		HikariDataSource shard1 = (HikariDataSource) routingDataSource.getResolvedDataSources().get(1);
+		HikariDataSource shard2 = (HikariDataSource) routingDataSource.getResolvedDataSources().get(2);
+
+		assertThat(shard1.isClosed()).isFalse();
+		assertThat(shard2.isClosed()).isFalse();
+
+		postProcessor.postProcessBeforeDestruction(defaultDataSource, "dataSource");
+
+		assertThat(shard1.isClosed()).isTrue();
+		assertThat(shard2.isClosed()).isTrue();
+	}
+}
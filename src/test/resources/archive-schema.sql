@@ -0,0 +1,17 @@
+-- Tables de l'archivage (créées par Flyway en production) pour les bases H2 des tests.
+CREATE TABLE IF NOT EXISTS todos_archive (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    title       VARCHAR(255) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    completed   BOOLEAN      NOT NULL,
+    owner       VARCHAR(255),
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS todos_archive_checkpoint (
+    job        VARCHAR(64)  NOT NULL PRIMARY KEY,
+    last_id    BIGINT       NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,10 @@
+-- Table "todos" des bases H2 qui ne sont pas créées par Hibernate (réplica, shards supplémentaires) dans les tests.
+CREATE TABLE IF NOT EXISTS todos (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    title       VARCHAR(255) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    completed   BOOLEAN      NOT NULL,
+    owner       VARCHAR(255),
+    created_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);